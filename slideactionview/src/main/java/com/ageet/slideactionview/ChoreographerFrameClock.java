@@ -0,0 +1,32 @@
+package com.ageet.slideactionview;
+
+import android.view.Choreographer;
+
+/**
+ * Frame clock driven by the UI thread's {@link Choreographer}, with the frame interval of the
+ * display the view is attached to.
+ */
+class ChoreographerFrameClock implements FrameClock {
+    private static final float DEFAULT_REFRESH_RATE = 60f;
+
+    private long frameIntervalNanos = (long) (1000000000L / DEFAULT_REFRESH_RATE);
+
+    void setRefreshRate(float refreshRate) {
+        frameIntervalNanos = (long) (1000000000L / (refreshRate > 0 ? refreshRate : DEFAULT_REFRESH_RATE));
+    }
+
+    @Override
+    public void postFrameCallback(Choreographer.FrameCallback callback) {
+        Choreographer.getInstance().postFrameCallback(callback);
+    }
+
+    @Override
+    public void removeFrameCallback(Choreographer.FrameCallback callback) {
+        Choreographer.getInstance().removeFrameCallback(callback);
+    }
+
+    @Override
+    public long getFrameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+}
@@ -0,0 +1,139 @@
+package com.ageet.slideactionview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * Delivers {@link SlideActionView.SliderListener#onSlideComplete()} inline, after the first frame
+ * of the complete animation or on an executor, and reports the moment of delivery to the gesture
+ * metrics. Callbacks run one at a time in the order of their gestures, and callbacks of gestures
+ * cancelled before they ran are dropped.
+ */
+class CompleteDispatcher implements Choreographer.FrameCallback, Runnable {
+    private static final int INITIAL_CAPACITY = 4;
+
+    // ring buffer of pending completions, so that dispatching does not allocate
+    private SlideActionView.SliderListener[] listeners = new SlideActionView.SliderListener[INITIAL_CAPACITY];
+    private GestureMetricsRecorder[] recorders = new GestureMetricsRecorder[INITIAL_CAPACITY];
+    private int head = 0;
+    private int count = 0;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private FrameClock clock;
+    private SlideActionView.CompleteDispatch dispatch = SlideActionView.CompleteDispatch.SYNCHRONOUS;
+    private Executor executor;
+    private boolean frameScheduled = false;
+    private boolean draining = false;
+
+    CompleteDispatcher(FrameClock clock) {
+        this.clock = clock;
+    }
+
+    void setFrameClock(FrameClock clock) {
+        if (frameScheduled) {
+            this.clock.removeFrameCallback(this);
+            clock.postFrameCallback(this);
+        }
+        this.clock = clock;
+    }
+
+    void setDispatch(SlideActionView.CompleteDispatch dispatch, Executor executor) {
+        if (dispatch == SlideActionView.CompleteDispatch.EXECUTOR && executor == null) {
+            throw new IllegalArgumentException("EXECUTOR dispatch requires an executor");
+        }
+        this.dispatch = dispatch;
+        this.executor = executor;
+    }
+
+    SlideActionView.CompleteDispatch getDispatch() {
+        return dispatch;
+    }
+
+    /**
+     * Queues the completion of a gesture. Either argument may be null.
+     */
+    void dispatch(SlideActionView.SliderListener listener, GestureMetricsRecorder recorder) {
+        synchronized (this) {
+            if (count == listeners.length) grow();
+            int tail = (head + count) % listeners.length;
+            listeners[tail] = listener;
+            recorders[tail] = recorder;
+            count++;
+        }
+        if (dispatch == SlideActionView.CompleteDispatch.SYNCHRONOUS) {
+            run();
+        } else if (dispatch == SlideActionView.CompleteDispatch.EXECUTOR) {
+            executor.execute(this);
+        } else if (!frameScheduled) {
+            clock.postFrameCallback(this);
+            frameScheduled = true;
+        }
+    }
+
+    private void grow() {
+        SlideActionView.SliderListener[] newListeners = new SlideActionView.SliderListener[listeners.length * 2];
+        GestureMetricsRecorder[] newRecorders = new GestureMetricsRecorder[newListeners.length];
+        for (int i = 0; i < count; i++) {
+            newListeners[i] = listeners[(head + i) % listeners.length];
+            newRecorders[i] = recorders[(head + i) % recorders.length];
+        }
+        listeners = newListeners;
+        recorders = newRecorders;
+        head = 0;
+    }
+
+    /**
+     * Drops all callbacks that have not started yet.
+     */
+    void cancel() {
+        synchronized (this) {
+            Arrays.fill(listeners, null);
+            Arrays.fill(recorders, null);
+            head = 0;
+            count = 0;
+        }
+        if (frameScheduled) {
+            clock.removeFrameCallback(this);
+            frameScheduled = false;
+        }
+        handler.removeCallbacks(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        // runs after the traversal of this frame, i.e. once the first animation frame is drawn
+        handler.post(this);
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            // a single drainer keeps callbacks in order even on a concurrent executor
+            if (draining) return;
+            draining = true;
+        }
+        while (true) {
+            SlideActionView.SliderListener listener;
+            GestureMetricsRecorder recorder;
+            synchronized (this) {
+                if (count == 0) {
+                    draining = false;
+                    return;
+                }
+                listener = listeners[head];
+                recorder = recorders[head];
+                listeners[head] = null;
+                recorders[head] = null;
+                head = (head + 1) % listeners.length;
+                count--;
+            }
+            // delivery time, so that the metrics do not include the time the listener takes
+            if (recorder != null) recorder.onSlideComplete();
+            if (listener != null) listener.onSlideComplete();
+        }
+    }
+}
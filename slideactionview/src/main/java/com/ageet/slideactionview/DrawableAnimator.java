@@ -0,0 +1,274 @@
+package com.ageet.slideactionview;
+
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.graphics.Rect;
+import android.os.Build;
+import android.view.Choreographer;
+
+import java.util.Arrays;
+
+/**
+ * Animates frame and alpha of drawable holders from preallocated tracks, ticked once per frame.
+ * Bounds can be driven by a duration and interpolator or by a damped spring that starts with a
+ * given velocity.
+ */
+class DrawableAnimator implements Choreographer.FrameCallback {
+    interface Callback {
+        void onAnimationFrame(Rect dirty);
+    }
+
+    interface Target {
+        Rect getFrame();
+        void setFrame(Rect frame);
+        int getAlpha();
+        void setAlpha(int alpha);
+    }
+
+    private static final int INITIAL_TRACKS = 8;
+    // semi-implicit euler steps are stable for stiff springs when kept this short
+    private static final float SPRING_STEP = 1f / 240f;
+    private static final float SPRING_MAX_DELTA = 0.064f;
+    private static final float SPRING_REST_DISTANCE = 0.001f;
+    private static final float SPRING_REST_VELOCITY = 0.01f;
+
+    private static final class Track {
+        Target target;
+        boolean bounds;
+        boolean active;
+        long startTimeNanos;
+        long durationNanos;
+        TimeInterpolator interpolator;
+        final Rect from = new Rect();
+        final Rect to = new Rect();
+        int fromAlpha;
+        int toAlpha;
+        boolean spring;
+        float stiffness;
+        float damping;
+        float value;
+        float velocity;
+        long lastFrameNanos;
+    }
+
+    private Track[] tracks = new Track[INITIAL_TRACKS];
+    private final Rect currentRect = new Rect();
+    private final Rect dirtyRect = new Rect();
+    private final Callback callback;
+    private FrameClock clock;
+    private boolean scheduled = false;
+
+    DrawableAnimator(FrameClock clock, Callback callback) {
+        this.clock = clock;
+        this.callback = callback;
+        for (int i = 0; i < tracks.length; i++) {
+            tracks[i] = new Track();
+        }
+    }
+
+    void animateBounds(Target target, long duration, TimeInterpolator interpolator, Rect to) {
+        Track track = obtainTrack(target, true);
+        track.from.set(target.getFrame());
+        track.to.set(to);
+        start(track, duration, interpolator);
+    }
+
+    /**
+     * Springs the target frame to {@code to}. The velocity is given in fractions of the distance
+     * per second, so holders that move different distances but share it stay in step.
+     */
+    void springBounds(Target target, float stiffness, float dampingRatio, float velocity, Rect to) {
+        Track track = obtainTrack(target, true);
+        track.from.set(target.getFrame());
+        track.to.set(to);
+        track.active = true;
+        track.spring = true;
+        track.stiffness = stiffness;
+        track.damping = 2 * dampingRatio * (float) Math.sqrt(stiffness);
+        track.value = 0;
+        track.velocity = velocity;
+        track.startTimeNanos = -1;
+        schedule();
+    }
+
+    void animateAlpha(Target target, long duration, TimeInterpolator interpolator, int to) {
+        Track track = obtainTrack(target, false);
+        track.fromAlpha = target.getAlpha();
+        track.toAlpha = to;
+        start(track, duration, interpolator);
+    }
+
+    void setFrameClock(FrameClock clock) {
+        if (scheduled) {
+            this.clock.removeFrameCallback(this);
+            clock.postFrameCallback(this);
+        }
+        this.clock = clock;
+    }
+
+    boolean isRunning() {
+        for (Track track : tracks) {
+            if (track.active) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Jumps all running animations to their end values.
+     */
+    void finish() {
+        for (Track track : tracks) {
+            if (!track.active) continue;
+            track.value = 1;
+            apply(track, 1f);
+            track.active = false;
+            track.target = null;
+        }
+        if (scheduled) {
+            clock.removeFrameCallback(this);
+            scheduled = false;
+        }
+        if (!dirtyRect.isEmpty()) {
+            callback.onAnimationFrame(dirtyRect);
+            dirtyRect.setEmpty();
+        }
+    }
+
+    void cancelBounds(Target target) {
+        for (Track track : tracks) {
+            if (track.active && track.target == target && track.bounds) {
+                track.active = false;
+                track.target = null;
+            }
+        }
+    }
+
+    void cancel() {
+        for (Track track : tracks) {
+            track.active = false;
+            track.target = null;
+        }
+        if (scheduled) {
+            clock.removeFrameCallback(this);
+            scheduled = false;
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        boolean traced = Tracing.begin("SlideActionView#animationFrame");
+        scheduled = false;
+        boolean running = false;
+        for (Track track : tracks) {
+            if (!track.active) continue;
+            boolean finished;
+            if (track.spring) {
+                finished = stepSpring(track, frameTimeNanos);
+                apply(track, track.value);
+            } else {
+                if (track.startTimeNanos < 0) track.startTimeNanos = frameTimeNanos;
+                long elapsed = frameTimeNanos - track.startTimeNanos;
+                float fraction = track.durationNanos > 0 ? Math.min((float) elapsed / track.durationNanos, 1f) : 1f;
+                apply(track, track.interpolator.getInterpolation(fraction));
+                finished = fraction >= 1f;
+            }
+            if (!finished) {
+                running = true;
+            } else {
+                track.active = false;
+                track.target = null;
+            }
+        }
+        callback.onAnimationFrame(dirtyRect);
+        dirtyRect.setEmpty();
+        if (running) schedule();
+        Tracing.end(traced);
+    }
+
+    private static boolean stepSpring(Track track, long frameTimeNanos) {
+        if (track.startTimeNanos < 0) {
+            track.startTimeNanos = frameTimeNanos;
+            track.lastFrameNanos = frameTimeNanos;
+            return false;
+        }
+        float scale = durationScale();
+        if (scale == 0) {
+            track.value = 1;
+            return true;
+        }
+        float delta = Math.min((frameTimeNanos - track.lastFrameNanos) / 1e9f, SPRING_MAX_DELTA) / scale;
+        track.lastFrameNanos = frameTimeNanos;
+        while (delta > 0) {
+            float step = Math.min(delta, SPRING_STEP);
+            float acceleration = -track.stiffness * (track.value - 1) - track.damping * track.velocity;
+            track.velocity += acceleration * step;
+            track.value += track.velocity * step;
+            delta -= step;
+        }
+        if (Math.abs(1 - track.value) < SPRING_REST_DISTANCE && Math.abs(track.velocity) < SPRING_REST_VELOCITY) {
+            track.value = 1;
+            return true;
+        }
+        return false;
+    }
+
+    private void apply(Track track, float fraction) {
+        dirtyRect.union(track.target.getFrame());
+        if (track.bounds) {
+            currentRect.set(
+                    track.from.left + (int) ((track.to.left - track.from.left) * fraction),
+                    track.from.top + (int) ((track.to.top - track.from.top) * fraction),
+                    track.from.right + (int) ((track.to.right - track.from.right) * fraction),
+                    track.from.bottom + (int) ((track.to.bottom - track.from.bottom) * fraction));
+            track.target.setFrame(currentRect);
+            dirtyRect.union(currentRect);
+        } else {
+            track.target.setAlpha(track.fromAlpha + (int) ((track.toAlpha - track.fromAlpha) * fraction));
+        }
+    }
+
+    private Track obtainTrack(Target target, boolean bounds) {
+        Track free = null;
+        for (Track track : tracks) {
+            if (track.active && track.target == target && track.bounds == bounds) return track;
+            if (!track.active && free == null) free = track;
+        }
+        if (free == null) free = growTracks();
+        free.target = target;
+        free.bounds = bounds;
+        return free;
+    }
+
+    private Track growTracks() {
+        // only happens once per view when more holders animate at once than ever before
+        int count = tracks.length;
+        tracks = Arrays.copyOf(tracks, count * 2);
+        for (int i = count; i < tracks.length; i++) {
+            tracks[i] = new Track();
+        }
+        return tracks[count];
+    }
+
+    private void start(Track track, long duration, TimeInterpolator interpolator) {
+        track.active = true;
+        track.spring = false;
+        track.startTimeNanos = -1;
+        track.durationNanos = (long) (duration * durationScale() * 1000000L);
+        track.interpolator = interpolator;
+        schedule();
+    }
+
+    private void schedule() {
+        if (!scheduled) {
+            clock.postFrameCallback(this);
+            scheduled = true;
+        }
+    }
+
+    private static float durationScale() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return ValueAnimator.getDurationScale();
+        }
+        return 1f;
+    }
+}
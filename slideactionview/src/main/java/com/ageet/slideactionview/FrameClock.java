@@ -0,0 +1,19 @@
+package com.ageet.slideactionview;
+
+import android.view.Choreographer;
+
+/**
+ * Schedules the per-frame work of a {@link SlideActionView}: animations, progress dispatch and
+ * gesture metrics. The default posts to the {@link Choreographer} of the UI thread; tests can
+ * install a {@link VirtualFrameClock} to step frames explicitly.
+ */
+public interface FrameClock {
+    void postFrameCallback(Choreographer.FrameCallback callback);
+
+    void removeFrameCallback(Choreographer.FrameCallback callback);
+
+    /**
+     * Returns the expected time between two frames, in nanoseconds.
+     */
+    long getFrameIntervalNanos();
+}
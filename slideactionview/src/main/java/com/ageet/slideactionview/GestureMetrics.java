@@ -0,0 +1,80 @@
+package com.ageet.slideactionview;
+
+/**
+ * Performance metrics of a single drag gesture on a {@link SlideActionView}.
+ * The instance is reused by the view and is only valid during
+ * {@link SlideActionView.MetricsListener#onGestureMetrics(GestureMetrics)}.
+ */
+public final class GestureMetrics {
+    long dragDuration;
+    int touchSamples;
+    int framesRendered;
+    int framesOverBudget;
+    long worstDrawTime;
+    long worstTouchTime;
+    long worstLayoutTime;
+    long dropToCompleteTime;
+    boolean completed;
+
+    GestureMetrics() {
+    }
+
+    void reset() {
+        dragDuration = 0;
+        touchSamples = 0;
+        framesRendered = 0;
+        framesOverBudget = 0;
+        worstDrawTime = 0;
+        worstTouchTime = 0;
+        worstLayoutTime = 0;
+        dropToCompleteTime = -1;
+        completed = false;
+    }
+
+    /** Time from ACTION_DOWN to ACTION_UP in nanoseconds. */
+    public long getDragDuration() {
+        return dragDuration;
+    }
+
+    /** Number of touch samples processed, including historical samples. */
+    public int getTouchSamples() {
+        return touchSamples;
+    }
+
+    /** Number of onDraw passes during the gesture. */
+    public int getFramesRendered() {
+        return framesRendered;
+    }
+
+    /** Number of display frames that took longer than one and a half frame intervals. */
+    public int getFramesOverBudget() {
+        return framesOverBudget;
+    }
+
+    /** Slowest onDraw in nanoseconds. */
+    public long getWorstDrawTime() {
+        return worstDrawTime;
+    }
+
+    /** Slowest onTouchEvent in nanoseconds. */
+    public long getWorstTouchTime() {
+        return worstTouchTime;
+    }
+
+    /** Slowest dimension computation during layout in nanoseconds. */
+    public long getWorstLayoutTime() {
+        return worstLayoutTime;
+    }
+
+    /**
+     * Time from ACTION_UP until onSlideComplete is dispatched in nanoseconds, without the time the
+     * listener itself takes. -1 if the slide was not completed or its listener was cancelled.
+     */
+    public long getDropToCompleteTime() {
+        return dropToCompleteTime;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+}
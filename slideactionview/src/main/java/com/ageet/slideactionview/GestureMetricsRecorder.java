@@ -0,0 +1,135 @@
+package com.ageet.slideactionview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+/**
+ * Collects {@link GestureMetrics} for a view while a metrics listener is registered. Gesture
+ * timestamps come from {@link SystemClock#elapsedRealtimeNanos()}, durations of single calls
+ * from {@link System#nanoTime()}.
+ */
+class GestureMetricsRecorder implements Choreographer.FrameCallback {
+    private final GestureMetrics metrics = new GestureMetrics();
+    private final SlideActionView.MetricsListener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private FrameClock clock;
+    private long frameBudget;
+    private long startTime;
+    private long dropTime;
+    private long lastFrameTime;
+    private boolean active = false;
+    private boolean dropped = false;
+    private boolean delivered = false;
+    private boolean reported = true;
+
+    GestureMetricsRecorder(FrameClock clock, SlideActionView.MetricsListener listener) {
+        this.clock = clock;
+        this.listener = listener;
+    }
+
+    void setFrameClock(FrameClock clock) {
+        if (active) {
+            this.clock.removeFrameCallback(this);
+            clock.postFrameCallback(this);
+        }
+        this.clock = clock;
+    }
+
+    void onGestureStart() {
+        metrics.reset();
+        frameBudget = clock.getFrameIntervalNanos();
+        startTime = SystemClock.elapsedRealtimeNanos();
+        lastFrameTime = 0;
+        active = true;
+        dropped = false;
+        delivered = false;
+        reported = false;
+        clock.postFrameCallback(this);
+    }
+
+    void onTouchEvent(int samples, long duration) {
+        if (!active) return;
+        metrics.touchSamples += samples;
+        if (duration > metrics.worstTouchTime) metrics.worstTouchTime = duration;
+    }
+
+    void onDraw(long duration) {
+        if (!active) return;
+        metrics.framesRendered++;
+        if (duration > metrics.worstDrawTime) metrics.worstDrawTime = duration;
+    }
+
+    void onLayout(long duration) {
+        if (!active) return;
+        if (duration > metrics.worstLayoutTime) metrics.worstLayoutTime = duration;
+    }
+
+    void onGestureEnd() {
+        if (!active) return;
+        dropTime = SystemClock.elapsedRealtimeNanos();
+        metrics.dragDuration = dropTime - startTime;
+        active = false;
+        clock.removeFrameCallback(this);
+    }
+
+    /**
+     * Called by the complete dispatcher right before the listener runs, on the thread that runs it.
+     */
+    void onSlideComplete() {
+        final long time = SystemClock.elapsedRealtimeNanos();
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            onSlideComplete(time);
+        } else {
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    onSlideComplete(time);
+                }
+            });
+        }
+    }
+
+    private void onSlideComplete(long time) {
+        if (reported || delivered) return;
+        metrics.dropToCompleteTime = time - dropTime;
+        delivered = true;
+        if (dropped) report();
+    }
+
+    void onDrop(boolean complete) {
+        if (reported) return;
+        dropped = true;
+        metrics.completed = complete;
+        if (!complete || delivered) report();
+    }
+
+    /**
+     * Reports a completed gesture whose listener was cancelled before it ran.
+     */
+    void onCompleteCancelled() {
+        if (!reported && dropped) report();
+    }
+
+    void cancel() {
+        active = false;
+        reported = true;
+        clock.removeFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!active) return;
+        if (lastFrameTime != 0 && frameTimeNanos - lastFrameTime > frameBudget + frameBudget / 2) {
+            metrics.framesOverBudget++;
+        }
+        lastFrameTime = frameTimeNanos;
+        clock.postFrameCallback(this);
+    }
+
+    private void report() {
+        reported = true;
+        listener.onGestureMetrics(metrics);
+    }
+}
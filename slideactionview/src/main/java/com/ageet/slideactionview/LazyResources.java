@@ -0,0 +1,57 @@
+package com.ageet.slideactionview;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+
+/**
+ * Drawables and descriptions of a lazily inflated {@link SlideActionView}.
+ * Inflation may run on any thread and happens at most once.
+ */
+class LazyResources {
+    private final int backgroundId;
+    private final int sliderLeftId;
+    private final int sliderRightId;
+    private final String description;
+    private final String leftDescription;
+    private final String rightDescription;
+    private boolean inflated = false;
+
+    Drawable background;
+    Drawable sliderLeft;
+    Drawable sliderRight;
+    TextDrawable descriptionDrawable;
+    TextDrawable leftDescriptionDrawable;
+    TextDrawable rightDescriptionDrawable;
+
+    LazyResources(int backgroundId, int sliderLeftId, int sliderRightId,
+                  String description, String leftDescription, String rightDescription) {
+        this.backgroundId = backgroundId;
+        this.sliderLeftId = sliderLeftId;
+        this.sliderRightId = sliderRightId;
+        this.description = description;
+        this.leftDescription = leftDescription;
+        this.rightDescription = rightDescription;
+    }
+
+    synchronized void inflate(Context context) {
+        if (inflated) return;
+        background = getDrawable(context, backgroundId);
+        sliderLeft = getDrawable(context, sliderLeftId);
+        sliderRight = getDrawable(context, sliderRightId);
+        descriptionDrawable = TextDrawable.premeasured(description);
+        leftDescriptionDrawable = TextDrawable.premeasured(leftDescription);
+        rightDescriptionDrawable = TextDrawable.premeasured(rightDescription);
+        inflated = true;
+    }
+
+    private static Drawable getDrawable(Context context, int drawableId) {
+        if (drawableId == 0) return null;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            return context.getResources().getDrawable(drawableId, context.getTheme());
+        } else {
+            //noinspection deprecation
+            return context.getResources().getDrawable(drawableId);
+        }
+    }
+}
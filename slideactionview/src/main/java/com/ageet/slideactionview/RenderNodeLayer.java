@@ -0,0 +1,59 @@
+package com.ageet.slideactionview;
+
+import android.annotation.TargetApi;
+import android.graphics.Canvas;
+import android.graphics.RecordingCanvas;
+import android.graphics.Rect;
+import android.graphics.RenderNode;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+
+/**
+ * Keeps a drawable recorded at fixed bounds and moves it through render node properties only.
+ */
+@TargetApi(Build.VERSION_CODES.Q)
+class RenderNodeLayer {
+    private final RenderNode node;
+    private final Rect clipRect = new Rect();
+    private boolean contentDirty = true;
+
+    RenderNodeLayer(String name) {
+        node = new RenderNode(name);
+    }
+
+    void invalidateContent() {
+        contentDirty = true;
+    }
+
+    void discard() {
+        node.discardDisplayList();
+        contentDirty = true;
+    }
+
+    void draw(Canvas canvas, Drawable drawable, Rect position, Rect frame, int alpha) {
+        if (contentDirty || !node.hasDisplayList()) {
+            node.setPosition(position);
+            RecordingCanvas recordingCanvas = node.beginRecording(position.width(), position.height());
+            try {
+                recordingCanvas.translate(-position.left, -position.top);
+                drawable.draw(recordingCanvas);
+            } finally {
+                node.endRecording();
+            }
+            contentDirty = false;
+        }
+        if (frame.width() == position.width() && frame.height() == position.height()) {
+            node.setTranslationX(frame.left - position.left);
+            node.setTranslationY(frame.top - position.top);
+            node.setClipRect(null);
+        } else {
+            node.setTranslationX(0);
+            node.setTranslationY(0);
+            clipRect.set(frame);
+            clipRect.offset(-position.left, -position.top);
+            node.setClipRect(clipRect);
+        }
+        node.setAlpha(alpha / 255f);
+        canvas.drawRenderNode(node);
+    }
+}
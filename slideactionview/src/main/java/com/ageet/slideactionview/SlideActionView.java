@@ -1,83 +1,229 @@
 package com.ageet.slideactionview;
 
-import android.animation.ObjectAnimator;
-import android.animation.RectEvaluator;
-import android.animation.TypeEvaluator;
-import android.animation.ValueAnimator;
+import android.animation.TimeInterpolator;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.res.Resources;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Point;
+import android.graphics.PixelFormat;
 import android.graphics.Rect;
+import android.graphics.Region;
 import android.graphics.drawable.Drawable;
+import android.hardware.display.DisplayManager;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.util.TypedValue;
+import android.view.Choreographer;
+import android.view.Display;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
 
-import java.util.HashSet;
-import java.util.Set;
+import com.ageet.slideengine.SlideEngine;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 public class SlideActionView extends View {
-    private enum State {
+    public enum State {
         NORMAL,
         DRAG_SLIDER_LEFT,
         DRAG_SLIDER_RIGHT,
         COMPLETE_SLIDER_LEFT,
-        COMPLETE_SLIDER_RIGHT
+        COMPLETE_SLIDER_RIGHT,
+        DRAG_ACTION,
+        COMPLETE_ACTION
     }
 
-    private static abstract class DrawableHolder<T extends Drawable> {
+    private abstract class DrawableHolder<T extends Drawable> implements DrawableAnimator.Target {
         T drawable = null;
+        // state shared with other drawables from the same resource, kept to undo mutate() on trim
+        Drawable.ConstantState sharedState = null;
+        boolean owned = false;
         Rect position = new Rect();
+        Rect frame = new Rect();
+        int alpha = 255;
+        boolean mutated = false;
+        RenderNodeLayer layer = null;
+        boolean visible = false;
+        final String name;
+        final String traceSection;
 
-        Rect getCurrentBounds() {
-            if (drawable != null) {
-                return drawable.getBounds();
-            } else {
-                return position;
+        DrawableHolder(String name) {
+            this.name = name;
+            this.traceSection = "SlideActionView#draw " + name;
+        }
+
+        void setDrawable(T drawable) {
+            this.drawable = drawable;
+            owned = false;
+            sharedState = null;
+            mutated = false;
+            if (drawable != null && layer == null) applyAlpha();
+            invalidateContent();
+            geometryValid = false;
+            visibilityValid = false;
+        }
+        /**
+         * Sets a drawable that the view inflated itself, so that it may be replaced by a fresh
+         * one from the same resource.
+         */
+        void setOwnedDrawable(T drawable) {
+            setDrawable(drawable);
+            owned = true;
+        }
+        void invalidateContent() {
+            if (layer != null) layer.invalidateContent();
+        }
+        @SuppressWarnings("unchecked")
+        void releaseMutation() {
+            if (!mutated || sharedState == null || alpha != 255) return;
+            T fresh = (T) sharedState.newDrawable(getResources());
+            fresh.setBounds(drawable.getBounds());
+            fresh.setState(drawable.getState());
+            drawable = fresh;
+            sharedState = null;
+            mutated = false;
+            invalidateContent();
+        }
+        void releaseLayer() {
+            if (layer != null) {
+                layer.discard();
+                layer = null;
+                if (drawable != null) applyAlpha();
             }
         }
+        Rect getCurrentBounds() {
+            return frame;
+        }
         int getWidth() {
             return position.width();
         }
         int getHeight() {
             return position.height();
         }
+        void setPosition() {
+            visibilityValid = false;
+            frame.set(position);
+            if (drawable != null) drawable.setBounds(position);
+            invalidateContent();
+        }
+        @Override
+        public Rect getFrame() {
+            return frame;
+        }
+        @Override
+        public void setFrame(Rect frame) {
+            visibilityValid = false;
+            this.frame.set(frame);
+            if (drawable != null && !hasStableBounds()) drawable.setBounds(frame);
+        }
+        @Override
+        public int getAlpha() {
+            return alpha;
+        }
+        @Override
+        public void setAlpha(int alpha) {
+            visibilityValid = false;
+            this.alpha = alpha;
+            if (drawable != null && layer == null) applyAlpha();
+        }
+        void applyAlpha() {
+            if (drawable.getAlpha() == alpha) return;
+            // drawables loaded from resources share their state until mutated
+            if (!mutated) {
+                if (owned) sharedState = drawable.getConstantState();
+                drawable.mutate();
+                mutated = true;
+            }
+            drawable.setAlpha(alpha);
+        }
+        boolean hasStableBounds() {
+            return stableBounds;
+        }
         boolean canDraw() {
-            return drawable != null;
+            return drawable != null && alpha > 0;
         }
-        void drawIfPossible(Canvas canvas) {
-            if (canDraw()) drawable.draw(canvas);
+        boolean isOpaque() {
+            return visible && alpha == 255 && drawable.getOpacity() == PixelFormat.OPAQUE;
+        }
+        void onVisibilityChanged() {
+            dirtyRect.union(frame);
+        }
+        void drawContent(Canvas canvas) {
+            boolean traced = Tracing.begin(traceSection);
+            drawContentInternal(canvas);
+            Tracing.end(traced);
+        }
+        private void drawContentInternal(Canvas canvas) {
+            if (!hasStableBounds()) {
+                drawable.draw(canvas);
+                return;
+            }
+            if (layer == null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && canvas.isHardwareAccelerated()) {
+                layer = new RenderNodeLayer(name);
+                if (drawable.getAlpha() != 255) drawable.setAlpha(255);
+            }
+            if (layer != null && canvas.isHardwareAccelerated()) {
+                layer.draw(canvas, drawable, position, frame, alpha);
+                return;
+            }
+            if (layer != null && alpha == 0) return;
+            int saveCount = canvas.save();
+            if (layer != null && alpha < 255) {
+                canvas.saveLayerAlpha(frame.left, frame.top, frame.right, frame.bottom, alpha);
+            }
+            if (frame.width() == position.width() && frame.height() == position.height()) {
+                canvas.translate(frame.left - position.left, frame.top - position.top);
+            } else {
+                canvas.clipRect(frame);
+            }
+            drawable.draw(canvas);
+            canvas.restoreToCount(saveCount);
         }
     }
 
     private class Background extends DrawableHolder<Drawable> implements StateObserver {
+        Background() {
+            super("background");
+        }
+
+        @Override
+        boolean hasStableBounds() {
+            // cropping would cut off the ends of shaped backgrounds such as rounded rects
+            return false;
+        }
+
         void initDimensions() {
             position.set(contentPlace);
-            if (drawable != null) drawable.setBounds(position);
+            setPosition();
+            if (isDragging()) followSliders();
         }
 
-        @Override
-        void drawIfPossible(Canvas canvas) {
+        void followSliders() {
             if (!canDraw()) return;
-            if (state == State.DRAG_SLIDER_LEFT || state == State.DRAG_SLIDER_RIGHT) {
-                int left = sliderL.drawable != null ? sliderL.drawable.getBounds().left - sliderL.marginHorizontal : position.left;
-                int right = sliderR.drawable != null ? sliderR.drawable.getBounds().right + sliderR.marginHorizontal : position.right;
-                temporaryRect.set(left, contentPlace.top, right, contentPlace.bottom);
-                drawable.setBounds(temporaryRect);
-            }
-            drawable.draw(canvas);
+            int left = sliderL.drawable != null ? sliderL.frame.left - sliderL.marginHorizontal : position.left;
+            int right = sliderR.drawable != null ? sliderR.frame.right + sliderR.marginHorizontal : position.right;
+            temporaryRect.set(left, contentPlace.top, right, contentPlace.bottom);
+            dirtyRect.union(frame);
+            setFrame(temporaryRect);
+            dirtyRect.union(temporaryRect);
         }
+
         @Override
         public void onStateChanged(State state) {
-            if (state == State.NORMAL) {
-                move(drawable, DURATION_MOVE_SLIDER, position);
-            } else if (state == State.COMPLETE_SLIDER_LEFT || state == State.COMPLETE_SLIDER_RIGHT) {
-                Slider slider = state == State.COMPLETE_SLIDER_LEFT ? sliderL : sliderR;
+            if (isDragging()) {
+                followSliders();
+            } else if (state == State.NORMAL) {
+                move(this, moveSliderDuration, position);
+            } else {
+                Slider slider = activeSlider;
                 if (slider.completeToCenter) {
                     temporaryRect.set(slider.position);
                     temporaryRect.offsetTo(
@@ -87,41 +233,55 @@ public class SlideActionView extends View {
                     temporaryRect.set(slider.target);
                 }
                 temporaryRect.inset(-slider.marginHorizontal, -slider.marginVertical);
-                move(sliderBg.drawable, DURATION_COMPLETE_SLIDER, temporaryRect);
+                move(this, completeSliderDuration, temporaryRect);
             }
         }
     }
 
-    private abstract class Slider extends DrawableHolder<Drawable> implements StateObserver {
+    private class Slider extends DrawableHolder<Drawable> implements StateObserver {
         SliderListener listener;
         Rect target = new Rect();
         int marginHorizontal = dip(4);
         int marginVertical = dip(4);
         boolean completeToCenter = true;
+        final int index;
+        final float startFraction;
+        final float targetFraction;
+        final State dragState;
+        final State completeState;
+        Description description;
+
+        Slider(String name, int index, float startFraction, float targetFraction, State dragState, State completeState) {
+            super(name);
+            this.index = index;
+            this.startFraction = startFraction;
+            this.targetFraction = targetFraction;
+            this.dragState = dragState;
+            this.completeState = completeState;
+        }
 
-        boolean performDrop(Point point) {
-            if (checkSlideComplete(point)) {
+        boolean performDrop(float x, float velocityX) {
+            if (engine.isComplete(index, x, velocityX)) {
                 debug("slide complete");
-                if (listener != null) listener.onSlideComplete();
                 return true;
             } else {
                 return false;
             }
         }
-        void performMove(Point point) {
-            temporaryRect.set(
-                    point.x - getWidth() / 2,
-                    point.y - getHeight() / 2,
-                    point.x + getWidth() / 2,
-                    point.y + getHeight() / 2);
-            drawable.setBounds(temporaryRect);
+        void performMove(float centerX, float centerY) {
+            temporaryRect.set(0, 0, getWidth(), getHeight());
+            temporaryRect.offsetTo(Math.round(centerX - getWidth() / 2f), Math.round(centerY - getHeight() / 2f));
+            dirtyRect.union(frame);
+            setFrame(temporaryRect);
+            dirtyRect.union(temporaryRect);
         }
-        boolean checkSlideStart(Point point) {
-            return position.contains(point.x, point.y);
+        boolean checkSlideStart(float x, float y) {
+            return frame.contains((int) x, (int) y);
+        }
+        int getOffsetX(float fraction) {
+            int range = contentPlace.width() - marginHorizontal * 2 - getWidth();
+            return contentPlace.left + marginHorizontal + Math.round(range * fraction);
         }
-        abstract boolean checkSlideComplete(Point point);
-        abstract Point getPositionOffset();
-        abstract Point getTargetOffset();
 
         void initDimensions() {
             int width = 0;
@@ -138,104 +298,91 @@ public class SlideActionView extends View {
                     height = drawable.getIntrinsicHeight();
                 }
             }
-            debug("width = " + width + ", height = " + height);
+            if (debugMode) debug("width = " + width + ", height = " + height);
             position.set(0, 0, width, height);
             target.set(0, 0, width, height);
-            Point positionOffset = getPositionOffset();
-            Point targetOffset = getTargetOffset();
-            debug("positionOffset = " + positionOffset + ", targetOffset = " + targetOffset);
-            position.offset(positionOffset.x, positionOffset.y);
-            target.offset(targetOffset.x, targetOffset.y);
-            if (drawable != null) drawable.setBounds(position);
+            int top = contentPlace.centerY() - height / 2;
+            position.offset(getOffsetX(startFraction), top);
+            target.offset(getOffsetX(targetFraction), top);
+            if (debugMode) debug("position = " + position + ", target = " + target);
+            engine.setSlider(index, position.left, position.top, position.right, position.bottom, target.left, target.right);
+            setPosition();
+        }
+
+        float getProgress() {
+            return engine.getProgress(index, frame.exactCenterX());
         }
 
         @Override
         public void onStateChanged(State state) {
+            boolean active = activeSlider == this;
             if (state == State.NORMAL) {
-                move(drawable, DURATION_MOVE_SLIDER, position);
-                show(drawable, DURATION_SHOW_SLIDER);
-            } else if ((state == State.COMPLETE_SLIDER_LEFT || state == State.COMPLETE_SLIDER_RIGHT)) {
+                move(this, moveSliderDuration, position);
+                show(this, showSliderDuration);
+            } else if (active && state == completeState) {
                 if (completeToCenter) {
                     temporaryRect.set(position);
                     temporaryRect.offsetTo(contentPlace.centerX() - getWidth() / 2, position.top);
                 } else {
                     temporaryRect.set(target);
                 }
-                move(drawable, DURATION_COMPLETE_SLIDER, temporaryRect);
-            }
-        }
-    }
-
-    private class SliderLeft extends Slider {
-        @Override
-        boolean checkSlideComplete(Point point) {
-            return target.left <= point.x;
-        }
-        @Override
-        Point getPositionOffset() {
-            return new Point(contentPlace.left + marginHorizontal, contentPlace.centerY() - getHeight() / 2);
-        }
-        @Override
-        Point getTargetOffset() {
-            return new Point(contentPlace.right - marginHorizontal - getWidth(), contentPlace.centerY() - getHeight() / 2);
-        }
-        @Override
-        public void onStateChanged(State state) {
-            super.onStateChanged(state);
-            if (state == State.DRAG_SLIDER_RIGHT) {
-                hide(drawable, DURATION_HIDE_SLIDER);
+                move(this, completeSliderDuration, temporaryRect);
+                // a snap may come from the completed state of another slider, which hid this one
+                if (snapping) show(this, showSliderDuration);
+            } else if (!active && (isDragging() || snapping)) {
+                hide(this, hideSliderDuration);
             }
             if (drawable != null) {
-                drawable.setState(state == State.DRAG_SLIDER_LEFT ? PRESSED_STATE_SET : EMPTY_STATE_SET);
+                drawable.setState(active && state == dragState ? PRESSED_STATE_SET : EMPTY_STATE_SET);
+                invalidateContent();
             }
         }
     }
 
-    private class SliderRight extends Slider {
-        @Override
-        boolean checkSlideComplete(Point point) {
-            return target.right >= point.x;
-        }
-        @Override
-        Point getPositionOffset() {
-            return new Point(contentPlace.right - marginHorizontal - getWidth(), contentPlace.centerY() - getHeight() / 2);
+    private class Description extends DrawableHolder<TextDrawable> {
+        private final Slider slider;
+        private int marginHorizontal = dip(16);
+
+        public Description(String name, Slider slider) {
+            super(name);
+            this.slider = slider;
         }
         @Override
-        Point getTargetOffset() {
-            return new Point(contentPlace.left + marginHorizontal, contentPlace.centerY() - getHeight() / 2);
+        boolean canDraw() {
+            boolean visible = slider == null ? state == State.NORMAL : slider == activeSlider && state == slider.dragState;
+            return visible && super.canDraw() && !isCoveredBySlider();
         }
-        @Override
-        public void onStateChanged(State state) {
-            super.onStateChanged(state);
-            if (state == State.DRAG_SLIDER_LEFT) {
-                hide(drawable, DURATION_HIDE_SLIDER);
-            }
-            if (drawable != null) {
-                drawable.setState(state == State.DRAG_SLIDER_RIGHT ? PRESSED_STATE_SET : EMPTY_STATE_SET);
+        private boolean isCoveredBySlider() {
+            Rect bounds = getCurrentBounds();
+            // current frames rather than the engine's hit columns, which only know resting positions
+            for (Slider other : sliders) {
+                Rect frame = other.getCurrentBounds();
+                // only moving sliders hide text, an action resting on it is simply drawn on top
+                if (frame.equals(other.position)) continue;
+                if (other.canDraw() && frame.left < bounds.right && frame.right > bounds.left) return true;
             }
+            return false;
         }
-    }
-
-    private class Description extends DrawableHolder<TextDrawable> {
-        private State targetState;
-        private int marginHorizontal = dip(16);
-
-        public Description(State targetState) {
-            this.targetState = targetState;
+        @Override
+        void setDrawable(TextDrawable drawable) {
+            if (this.drawable != null) this.drawable.setLayerCache(null);
+            super.setDrawable(drawable);
+            if (drawable != null) drawable.setLayerCache(textLayerCache);
         }
         @Override
-        boolean canDraw() {
-            return state == targetState &&  super.canDraw()
-                    && sliderDesc.getCurrentBounds().left >= sliderL.getCurrentBounds().right
-                    && sliderDesc.getCurrentBounds().right <= sliderR.getCurrentBounds().left;
+        void onVisibilityChanged() {
+            dirtyRect.union(position);
         }
         void initDimensions() {
+            // the stretch of the track that the slider crosses, or the one between the two ends
+            Rect start = slider != null ? slider.position : sliderL.position;
+            Rect end = slider != null ? slider.target : sliderR.position;
             position.set(
-                    sliderL.position.right + marginHorizontal,
+                    Math.min(start.right, end.right) + marginHorizontal,
                     contentPlace.top,
-                    sliderR.position.left - marginHorizontal,
+                    Math.max(start.left, end.left) - marginHorizontal,
                     contentPlace.bottom);
-            if (drawable != null) drawable.setBounds(position);
+            setPosition();
         }
     }
 
@@ -245,57 +392,291 @@ public class SlideActionView extends View {
         SlideActionView.debugMode = debugMode;
     }
 
+    /**
+     * Enables android.os.Trace sections around touch handling, drawing, layout, state dispatch
+     * and animation frames of all SlideActionViews, for Perfetto or systrace captures.
+     */
+    public static void setTracingEnabled(boolean tracingEnabled) {
+        Tracing.enabled = tracingEnabled;
+    }
+
+    private static final int DIRTY_MARGIN = dip(4);
+
     private static final int DURATION_SHOW_SLIDER = 200;
     private static final int DURATION_HIDE_SLIDER = 100;
     private static final int DURATION_MOVE_SLIDER = 500;
     private static final int DURATION_COMPLETE_SLIDER = 1000;
 
+    private long showSliderDuration = DURATION_SHOW_SLIDER;
+    private long hideSliderDuration = DURATION_HIDE_SLIDER;
+    private long moveSliderDuration = DURATION_MOVE_SLIDER;
+    private long completeSliderDuration = DURATION_COMPLETE_SLIDER;
+    private TimeInterpolator interpolator = new AccelerateDecelerateInterpolator();
+    private float springStiffness = 0;
+    private float springDampingRatio = 1;
+    private float releaseVelocity = 0;
+
     private State state = State.NORMAL;
     private Background sliderBg = new Background();
-    private Slider sliderL = new SliderLeft();
-    private Slider sliderR = new SliderRight();
-    private Description sliderDesc = new Description(State.NORMAL);
-    private Description sliderLeftDesc = new Description(State.DRAG_SLIDER_LEFT);
-    private Description sliderRightDesc = new Description(State.DRAG_SLIDER_RIGHT);
+    private final SlideEngine engine = new SlideEngine();
+    private Slider sliderL = new Slider("sliderLeft", 0, 0, 1, State.DRAG_SLIDER_LEFT, State.COMPLETE_SLIDER_LEFT);
+    private Slider sliderR = new Slider("sliderRight", 1, 1, 0, State.DRAG_SLIDER_RIGHT, State.COMPLETE_SLIDER_RIGHT);
+    private Slider activeSlider = null;
+    private Slider lastDraggedSlider = null;
+    private Description sliderDesc = new Description("description", null);
+    private Description sliderLeftDesc = new Description("leftDescription", sliderL);
+    private Description sliderRightDesc = new Description("rightDescription", sliderR);
+    private Slider[] sliders = { sliderL, sliderR };
+    private Description[] descriptions = { sliderDesc, sliderLeftDesc, sliderRightDesc };
+    // draw order
+    private DrawableHolder<?>[] holders = { sliderBg, sliderDesc, sliderLeftDesc, sliderRightDesc, sliderL, sliderR };
+    private StateObserver[] stateObservers = { sliderBg, sliderL, sliderR };
+    // frames of opaque sliders over the background, which is not drawn underneath them
+    private Rect[] occluders = new Rect[2];
+    private int occluderCount = 0;
+    private boolean visibilityValid = false;
+
+    {
+        engine.setSliderCount(sliders.length);
+        sliderL.description = sliderLeftDesc;
+        sliderR.description = sliderRightDesc;
+    }
+
+    private boolean stableBounds = false;
+    private TextLayerCache textLayerCache = null;
 
     private Float paddingLeftFactor = null;
     private Float paddingRightFactor = null;
 
     private Rect temporaryRect = new Rect();
+    private Rect dirtyRect = new Rect();
+
+    private long touchPredictionTime = 0;
+
+    private final ChoreographerFrameClock defaultFrameClock = new ChoreographerFrameClock();
+    private FrameClock frameClock = defaultFrameClock;
 
-    private ValueAnimator.AnimatorUpdateListener animatorUpdateListener = new ValueAnimator.AnimatorUpdateListener() {
+    private final DrawableAnimator animator = new DrawableAnimator(frameClock, new DrawableAnimator.Callback() {
         @Override
-        public void onAnimationUpdate(ValueAnimator animation) {
-            invalidate();
+        public void onAnimationFrame(Rect dirty) {
+            dirtyRect.union(dirty);
+            invalidateDirty();
         }
-    };
+    });
 
     public interface SliderListener {
         void onSlideComplete();
     }
 
+    public enum CompleteDispatch {
+        /** Calls the listener from onTouchEvent before the complete animation starts. */
+        SYNCHRONOUS,
+        /** Calls the listener on the UI thread once the first frame of the complete animation is drawn. */
+        AFTER_FRAME,
+        /** Calls the listener on an executor after the complete animation has started. */
+        EXECUTOR
+    }
+
+    public interface MetricsListener {
+        void onGestureMetrics(GestureMetrics metrics);
+    }
+
+    /**
+     * Receives state transitions and slider progress, delivered at most once per display frame.
+     */
+    public interface SlideProgressListener {
+        void onSlideStateChanged(State state);
+
+        /**
+         * Called for each action that moved. Progress is 0 at the action's start position and 1 at
+         * its target; the left and right sliders are actions 0 and 1.
+         */
+        void onSlideProgress(int action, float progress);
+    }
+
+    private static final int MAX_PENDING_STATES = 8;
+
+    private class ProgressDispatcher implements Choreographer.FrameCallback {
+        private SlideProgressListener[] listeners = new SlideProgressListener[0];
+        private final State[] pendingStates = new State[MAX_PENDING_STATES];
+        private int pendingStateCount = 0;
+        // last progress delivered per action, all actions start at their start position
+        private float[] progress = new float[sliders.length];
+        private boolean scheduled = false;
+
+        void add(SlideProgressListener listener) {
+            SlideProgressListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+            newListeners[listeners.length] = listener;
+            listeners = newListeners;
+        }
+
+        void remove(SlideProgressListener listener) {
+            for (int i = 0; i < listeners.length; i++) {
+                if (listeners[i] == listener) {
+                    SlideProgressListener[] newListeners = new SlideProgressListener[listeners.length - 1];
+                    System.arraycopy(listeners, 0, newListeners, 0, i);
+                    System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+                    listeners = newListeners;
+                    return;
+                }
+            }
+        }
+
+        boolean isActive() {
+            return listeners.length > 0;
+        }
+
+        void setActionCount(int count) {
+            progress = Arrays.copyOf(progress, count);
+        }
+
+        void onStateChanged(State state) {
+            if (pendingStateCount == MAX_PENDING_STATES) {
+                // keep the latest transitions if the display stalls
+                System.arraycopy(pendingStates, 1, pendingStates, 0, MAX_PENDING_STATES - 1);
+                pendingStateCount--;
+            }
+            pendingStates[pendingStateCount++] = state;
+            schedule();
+        }
+
+        void schedule() {
+            if (!scheduled) {
+                frameClock.postFrameCallback(this);
+                scheduled = true;
+            }
+        }
+
+        void setFrameClock(FrameClock clock) {
+            if (scheduled) {
+                frameClock.removeFrameCallback(this);
+                clock.postFrameCallback(this);
+            }
+        }
+
+        void cancel() {
+            if (scheduled) {
+                frameClock.removeFrameCallback(this);
+                scheduled = false;
+            }
+            pendingStateCount = 0;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            scheduled = false;
+            SlideProgressListener[] listeners = this.listeners;
+            for (int i = 0; i < pendingStateCount; i++) {
+                State state = pendingStates[i];
+                pendingStates[i] = null;
+                for (SlideProgressListener listener : listeners) {
+                    listener.onSlideStateChanged(state);
+                }
+            }
+            pendingStateCount = 0;
+            for (int i = 0; i < progress.length; i++) {
+                float current = sliders[i].getProgress();
+                if (current == progress[i]) continue;
+                progress[i] = current;
+                for (SlideProgressListener listener : listeners) {
+                    listener.onSlideProgress(i, current);
+                }
+            }
+        }
+    }
+
+    private final ProgressDispatcher progressDispatcher = new ProgressDispatcher();
+
+    /**
+     * Adds a listener for state transitions and slider progress. Listeners are called in the
+     * order they were added.
+     */
+    public void addSlideProgressListener(SlideProgressListener listener) {
+        progressDispatcher.add(listener);
+    }
+
+    public void removeSlideProgressListener(SlideProgressListener listener) {
+        progressDispatcher.remove(listener);
+        if (!progressDispatcher.isActive()) progressDispatcher.cancel();
+    }
+
+    /**
+     * Replaces the clock that drives animations, progress dispatch and gesture metrics.
+     * Pass null to restore the default clock, which follows the display's refresh rate.
+     */
+    public void setFrameClock(FrameClock clock) {
+        FrameClock newClock = clock != null ? clock : defaultFrameClock;
+        animator.setFrameClock(newClock);
+        progressDispatcher.setFrameClock(newClock);
+        completeDispatcher.setFrameClock(newClock);
+        if (metricsRecorder != null) metricsRecorder.setFrameClock(newClock);
+        frameClock = newClock;
+    }
+
     private interface StateObserver {
         void onStateChanged(State state);
     }
 
-    private final Set<StateObserver> stateObservers = new HashSet<>();
-    {
-        stateObservers.add(sliderBg);
-        stateObservers.add(sliderL);
-        stateObservers.add(sliderR);
+    private boolean isDragging() {
+        return engine.isDragging();
     }
 
-    private void setState(State state) {
-        debug("set state to " + state);
-        if (this.state != state) {
-            this.state = state;
-            for (StateObserver observer : stateObservers) {
-                observer.onStateChanged(state);
-            }
-            invalidate();
+    private static int getPhase(State state) {
+        switch (state) {
+            case DRAG_SLIDER_LEFT:
+            case DRAG_SLIDER_RIGHT:
+            case DRAG_ACTION:
+                return SlideEngine.PHASE_DRAG;
+            case COMPLETE_SLIDER_LEFT:
+            case COMPLETE_SLIDER_RIGHT:
+            case COMPLETE_ACTION:
+                return SlideEngine.PHASE_COMPLETE;
+            default:
+                return SlideEngine.PHASE_NORMAL;
         }
     }
 
+    private void setState(State state, Slider slider) {
+        debug("set state to ", state);
+        if (this.state != state || activeSlider != slider) {
+            dispatchState(state, slider);
+        }
+    }
+
+    private void dispatchState(State state, Slider slider) {
+        boolean traced = Tracing.begin("SlideActionView#dispatchState");
+        this.state = state;
+        this.activeSlider = slider;
+        engine.setState(getPhase(state), slider != null ? slider.index : SlideEngine.NONE);
+        visibilityValid = false;
+        for (StateObserver observer : stateObservers) {
+            observer.onStateChanged(state);
+        }
+        if (progressDispatcher.isActive()) progressDispatcher.onStateChanged(state);
+        Tracing.end(traced);
+        invalidate();
+        dirtyRect.setEmpty();
+    }
+
+    private boolean snapping = false;
+
+    private void snapToState(Slider slider) {
+        debug("snap to slider ", slider != null ? slider.name : null);
+        cancelCompletion();
+        animator.cancel();
+        if (isDragging() && getParent() != null) {
+            getParent().requestDisallowInterceptTouchEvent(false);
+        }
+        snapping = true;
+        if (slider != null) {
+            lastDraggedSlider = slider;
+            dispatchState(slider.completeState, slider);
+        } else {
+            dispatchState(State.NORMAL, null);
+        }
+        snapping = false;
+    }
+
     public void setLeftSliderListener(SliderListener leftSliderListener) {
         sliderL.listener = leftSliderListener;
     }
@@ -304,6 +685,106 @@ public class SlideActionView extends View {
         sliderR.listener = rightSliderListener;
     }
 
+    /**
+     * Adds a slider that is dragged along the track from {@code start} to {@code target}, both
+     * given as fractions of the track where 0 is its left and 1 its right end. The left and right
+     * sliders are actions 0 and 1; while an added action is dragged or completed the state is
+     * {@link State#DRAG_ACTION} or {@link State#COMPLETE_ACTION}.
+     *
+     * @return the index of the new action
+     */
+    public int addAction(Drawable drawable, float start, float target, SliderListener listener) {
+        if (sliders.length == Byte.MAX_VALUE) throw new IllegalStateException("too many actions");
+        int action = sliders.length;
+        Slider slider = new Slider("action" + action, action, start, target, State.DRAG_ACTION, State.COMPLETE_ACTION);
+        slider.description = new Description("actionDescription" + action, slider);
+        slider.completeToCenter = sliderL.completeToCenter;
+        slider.listener = listener;
+        slider.setDrawable(drawable);
+        sliders = Arrays.copyOf(sliders, action + 1);
+        sliders[action] = slider;
+        engine.setSliderCount(sliders.length);
+        progressDispatcher.setActionCount(sliders.length);
+        rebuildHolders();
+        markChanged(CHANGE_LAYOUT);
+        return action;
+    }
+
+    public void setActionDescription(int action, String description) {
+        setDescription(sliders[action].description, description);
+    }
+
+    public void setActionListener(int action, SliderListener listener) {
+        sliders[action].listener = listener;
+    }
+
+    public int getActionCount() {
+        return sliders.length;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the index of the action being dragged or completed, or -1 in the normal state.
+     */
+    public int getActiveAction() {
+        for (int i = 0; i < sliders.length; i++) {
+            if (sliders[i] == activeSlider) return i;
+        }
+        return -1;
+    }
+
+    private void rebuildHolders() {
+        int count = sliders.length;
+        descriptions = new Description[count + 1];
+        holders = new DrawableHolder<?>[count * 2 + 2];
+        stateObservers = new StateObserver[count + 1];
+        descriptions[0] = sliderDesc;
+        holders[0] = sliderBg;
+        holders[1] = sliderDesc;
+        stateObservers[0] = sliderBg;
+        for (int i = 0; i < count; i++) {
+            descriptions[i + 1] = sliders[i].description;
+            holders[i + 2] = sliders[i].description;
+            holders[count + i + 2] = sliders[i];
+            stateObservers[i + 1] = sliders[i];
+        }
+        occluders = new Rect[count];
+        occluderCount = 0;
+        visibilityValid = false;
+        geometryKey = new int[GEOMETRY_KEY_BASE + count * GEOMETRY_KEY_PER_SLIDER];
+        nextGeometryKey = new int[geometryKey.length];
+        geometryValid = false;
+    }
+
+    private final CompleteDispatcher completeDispatcher = new CompleteDispatcher(frameClock);
+
+    /**
+     * Sets when {@link SliderListener#onSlideComplete()} is called. Listeners of successive
+     * gestures are always called in order, and not at all once {@link #reset()} or one of the
+     * snap methods has cancelled their gesture.
+     */
+    public void setCompleteDispatch(CompleteDispatch dispatch) {
+        setCompleteDispatch(dispatch, null);
+    }
+
+    /**
+     * Like {@link #setCompleteDispatch(CompleteDispatch)}, with the executor that runs the
+     * listeners for {@link CompleteDispatch#EXECUTOR}.
+     */
+    public void setCompleteDispatch(CompleteDispatch dispatch, Executor executor) {
+        completeDispatcher.setDispatch(dispatch, executor);
+    }
+
+    private GestureMetricsRecorder metricsRecorder = null;
+
+    public void setMetricsListener(MetricsListener metricsListener) {
+        if (metricsRecorder != null) metricsRecorder.cancel();
+        metricsRecorder = metricsListener != null ? new GestureMetricsRecorder(frameClock, metricsListener) : null;
+    }
+
     public SlideActionView(Context context) {
         super(context);
     }
@@ -311,27 +792,102 @@ public class SlideActionView extends View {
     public SlideActionView(Context context, AttributeSet attrs) {
         super(context, attrs);
         TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.SlideActionView);
-        if (array.hasValue(R.styleable.SlideActionView_slideactionview_sliderBackground))
-            sliderBg.drawable = array.getDrawable(R.styleable.SlideActionView_slideactionview_sliderBackground).mutate();
-        if (array.hasValue(R.styleable.SlideActionView_slideactionview_sliderRight))
-            sliderR.drawable = array.getDrawable(R.styleable.SlideActionView_slideactionview_sliderRight).mutate();
-        if (array.hasValue(R.styleable.SlideActionView_slideactionview_sliderLeft))
-            sliderL.drawable = array.getDrawable(R.styleable.SlideActionView_slideactionview_sliderLeft).mutate();
-        if (array.hasValue(R.styleable.SlideActionView_slideactionview_sliderDescription))
-            sliderDesc.drawable = new TextDrawable(array.getString(R.styleable.SlideActionView_slideactionview_sliderDescription));
-        if (array.hasValue(R.styleable.SlideActionView_slideactionview_sliderLeftDescription))
-            sliderLeftDesc.drawable = new TextDrawable(array.getString(R.styleable.SlideActionView_slideactionview_sliderLeftDescription));
-        if (array.hasValue(R.styleable.SlideActionView_slideactionview_sliderRightDescription))
-            sliderRightDesc.drawable = new TextDrawable(array.getString(R.styleable.SlideActionView_slideactionview_sliderRightDescription));
+        if (array.getBoolean(R.styleable.SlideActionView_slideactionview_lazyInflation, false)
+                && isLazyInflatable(array, R.styleable.SlideActionView_slideactionview_sliderBackground)
+                && isLazyInflatable(array, R.styleable.SlideActionView_slideactionview_sliderLeft)
+                && isLazyInflatable(array, R.styleable.SlideActionView_slideactionview_sliderRight)) {
+            lazyResources = new LazyResources(
+                    array.getResourceId(R.styleable.SlideActionView_slideactionview_sliderBackground, 0),
+                    array.getResourceId(R.styleable.SlideActionView_slideactionview_sliderLeft, 0),
+                    array.getResourceId(R.styleable.SlideActionView_slideactionview_sliderRight, 0),
+                    array.getString(R.styleable.SlideActionView_slideactionview_sliderDescription),
+                    array.getString(R.styleable.SlideActionView_slideactionview_sliderLeftDescription),
+                    array.getString(R.styleable.SlideActionView_slideactionview_sliderRightDescription));
+        } else {
+            inflateDrawables(array);
+        }
         if (array.hasValue(R.styleable.SlideActionView_slideactionview_paddingLeftFactor))
             paddingLeftFactor = array.getFloat(R.styleable.SlideActionView_slideactionview_paddingLeftFactor, 0);
         if (array.hasValue(R.styleable.SlideActionView_slideactionview_paddingRightFactor))
             paddingRightFactor = array.getFloat(R.styleable.SlideActionView_slideactionview_paddingRightFactor, 0);
         if (array.hasValue(R.styleable.SlideActionView_slideactionview_completeToCenter))
-            sliderL.completeToCenter = sliderR.completeToCenter = array.getBoolean(R.styleable.SlideActionView_slideactionview_completeToCenter, false);
+            setCompleteToCenter(array.getBoolean(R.styleable.SlideActionView_slideactionview_completeToCenter, false));
+        if (array.hasValue(R.styleable.SlideActionView_slideactionview_stableBounds))
+            stableBounds = array.getBoolean(R.styleable.SlideActionView_slideactionview_stableBounds, false);
+        if (array.hasValue(R.styleable.SlideActionView_slideactionview_flingVelocity))
+            engine.setFlingVelocity(array.getDimension(R.styleable.SlideActionView_slideactionview_flingVelocity, 0));
+        if (array.hasValue(R.styleable.SlideActionView_slideactionview_touchPrediction))
+            touchPredictionTime = array.getInt(R.styleable.SlideActionView_slideactionview_touchPrediction, 0);
+        if (array.getBoolean(R.styleable.SlideActionView_slideactionview_cacheDescriptionLayers, false))
+            setDescriptionLayerCacheEnabled(true);
+        if (array.getInt(R.styleable.SlideActionView_slideactionview_completeDispatch, 0) == 1)
+            setCompleteDispatch(CompleteDispatch.AFTER_FRAME);
         array.recycle();
     }
 
+    private void inflateDrawables(TypedArray array) {
+        if (array.hasValue(R.styleable.SlideActionView_slideactionview_sliderBackground))
+            sliderBg.setOwnedDrawable(array.getDrawable(R.styleable.SlideActionView_slideactionview_sliderBackground));
+        if (array.hasValue(R.styleable.SlideActionView_slideactionview_sliderRight))
+            sliderR.setOwnedDrawable(array.getDrawable(R.styleable.SlideActionView_slideactionview_sliderRight));
+        if (array.hasValue(R.styleable.SlideActionView_slideactionview_sliderLeft))
+            sliderL.setOwnedDrawable(array.getDrawable(R.styleable.SlideActionView_slideactionview_sliderLeft));
+        if (array.hasValue(R.styleable.SlideActionView_slideactionview_sliderDescription))
+            sliderDesc.setDrawable(new TextDrawable(array.getString(R.styleable.SlideActionView_slideactionview_sliderDescription)));
+        if (array.hasValue(R.styleable.SlideActionView_slideactionview_sliderLeftDescription))
+            sliderLeftDesc.setDrawable(new TextDrawable(array.getString(R.styleable.SlideActionView_slideactionview_sliderLeftDescription)));
+        if (array.hasValue(R.styleable.SlideActionView_slideactionview_sliderRightDescription))
+            sliderRightDesc.setDrawable(new TextDrawable(array.getString(R.styleable.SlideActionView_slideactionview_sliderRightDescription)));
+    }
+
+    private static boolean isLazyInflatable(TypedArray array, int index) {
+        return !array.hasValue(index) || array.getResourceId(index, 0) != 0;
+    }
+
+    private LazyResources lazyResources = null;
+    // View.post() from a worker thread before attach is lost before API 24, so results of
+    // background work come back through the main looper instead
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Inflates the drawables and measures the descriptions of a lazily inflated view on the given
+     * executor, then installs them on the UI thread. Does nothing if the view is not lazy or
+     * has already been laid out.
+     */
+    public void prewarm(Executor executor) {
+        final LazyResources resources = lazyResources;
+        if (resources == null) return;
+        final Context context = getContext();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                resources.inflate(context);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (lazyResources == resources) {
+                            installLazyResources();
+                            markChanged(CHANGE_LAYOUT);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void installLazyResources() {
+        LazyResources resources = lazyResources;
+        if (resources == null) return;
+        lazyResources = null;
+        resources.inflate(getContext());
+        if (sliderBg.drawable == null) sliderBg.setOwnedDrawable(resources.background);
+        if (sliderL.drawable == null) sliderL.setOwnedDrawable(resources.sliderLeft);
+        if (sliderR.drawable == null) sliderR.setOwnedDrawable(resources.sliderRight);
+        if (sliderDesc.drawable == null) sliderDesc.setDrawable(resources.descriptionDrawable);
+        if (sliderLeftDesc.drawable == null) sliderLeftDesc.setDrawable(resources.leftDescriptionDrawable);
+        if (sliderRightDesc.drawable == null) sliderRightDesc.setDrawable(resources.rightDescriptionDrawable);
+    }
+
     private Drawable getDrawable(int drawableId) {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
             return getResources().getDrawable(drawableId, getContext().getTheme());
@@ -342,79 +898,387 @@ public class SlideActionView extends View {
     }
 
     public void setSliderBackgroundDrawable(int drawableId) {
-        setSliderBackgroundDrawable(getDrawable(drawableId));
+        sliderBg.setOwnedDrawable(getDrawable(drawableId));
+        markChanged(CHANGE_LAYOUT);
     }
 
     public void setSliderBackgroundDrawable(Drawable drawable) {
-        sliderBg.drawable = drawable.mutate();
-        requestLayout();
+        sliderBg.setDrawable(drawable);
+        markChanged(CHANGE_LAYOUT);
     }
 
     public void setSliderLeftDrawable(int drawableId) {
-        setSliderLeftDrawable(getDrawable(drawableId));
+        sliderL.setOwnedDrawable(getDrawable(drawableId));
+        markChanged(CHANGE_LAYOUT);
     }
 
     public void setSliderLeftDrawable(Drawable drawable) {
-        sliderL.drawable = drawable.mutate();
-        requestLayout();
+        sliderL.setDrawable(drawable);
+        markChanged(CHANGE_LAYOUT);
     }
 
     public void setSliderRightDrawable(int drawableId) {
-        setSliderRightDrawable(getDrawable(drawableId));
+        sliderR.setOwnedDrawable(getDrawable(drawableId));
+        markChanged(CHANGE_LAYOUT);
     }
 
     public void setSliderRightDrawable(Drawable drawable) {
-        sliderR.drawable = drawable.mutate();
-        requestLayout();
+        sliderR.setDrawable(drawable);
+        markChanged(CHANGE_LAYOUT);
+    }
+
+    private int descriptionGeneration = 0;
+
+    /**
+     * Measures the three descriptions on the given executor and installs them together on the
+     * UI thread, so that only drawing is left to the UI thread. Null leaves a description
+     * unchanged. Descriptions set in the meantime through the other setters take precedence.
+     */
+    public void setSliderDescriptionsAsync(Executor executor, final String description,
+                                           final String leftDescription, final String rightDescription) {
+        final int generation = ++descriptionGeneration;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final TextDrawable descriptionDrawable = TextDrawable.premeasured(description);
+                final TextDrawable leftDescriptionDrawable = TextDrawable.premeasured(leftDescription);
+                final TextDrawable rightDescriptionDrawable = TextDrawable.premeasured(rightDescription);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != descriptionGeneration) return;
+                        beginBatch();
+                        try {
+                            if (descriptionDrawable != null) sliderDesc.setDrawable(descriptionDrawable);
+                            if (leftDescriptionDrawable != null) sliderLeftDesc.setDrawable(leftDescriptionDrawable);
+                            if (rightDescriptionDrawable != null) sliderRightDesc.setDrawable(rightDescriptionDrawable);
+                            markChanged(CHANGE_LAYOUT);
+                        } finally {
+                            endBatch();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void setDescription(Description description, String text) {
+        descriptionGeneration++;
+        description.setDrawable(new TextDrawable(text));
+        markChanged(CHANGE_LAYOUT);
     }
 
     public void setSliderDescription(int descriptionId) {
-        sliderDesc.drawable = new TextDrawable(getResources().getString(descriptionId));
-        requestLayout();
+        setDescription(sliderDesc, getResources().getString(descriptionId));
     }
 
     public void setSliderDescription(String description) {
-        sliderDesc.drawable = new TextDrawable(description);
-        requestLayout();
+        setDescription(sliderDesc, description);
     }
 
     public void setSliderLeftDescription(int descriptionId) {
-        sliderLeftDesc.drawable = new TextDrawable(getResources().getString(descriptionId));
-        requestLayout();
+        setDescription(sliderLeftDesc, getResources().getString(descriptionId));
     }
 
     public void setSliderLeftDescription(String description) {
-        sliderLeftDesc.drawable = new TextDrawable(description);
-        requestLayout();
+        setDescription(sliderLeftDesc, description);
     }
 
     public void setSliderRightDescription(int descriptionId) {
-        sliderRightDesc.drawable = new TextDrawable(getResources().getString(descriptionId));
-        requestLayout();
+        setDescription(sliderRightDesc, getResources().getString(descriptionId));
     }
 
     public void setSliderRightDescription(String description) {
-        sliderRightDesc.drawable = new TextDrawable(description);
-        requestLayout();
+        setDescription(sliderRightDesc, description);
     }
 
     public void setPaddingLeftFactor(float padding) {
         paddingLeftFactor = padding;
-        requestLayout();
+        markChanged(CHANGE_LAYOUT);
     }
 
     public void setPaddingRightFactor(float padding) {
-        paddingLeftFactor = padding;
-        requestLayout();
+        paddingRightFactor = padding;
+        markChanged(CHANGE_LAYOUT);
     }
 
     public void setCompleteToCenter(boolean completeToCenter) {
-        sliderL.completeToCenter = sliderR.completeToCenter = completeToCenter;
-        requestLayout();
+        // only read when the complete animation starts
+        for (Slider slider : sliders) {
+            slider.completeToCenter = completeToCenter;
+        }
+    }
+
+    public void setShowSliderDuration(long duration) {
+        showSliderDuration = duration;
+    }
+
+    public void setHideSliderDuration(long duration) {
+        hideSliderDuration = duration;
+    }
+
+    public void setMoveSliderDuration(long duration) {
+        moveSliderDuration = duration;
+    }
+
+    public void setCompleteSliderDuration(long duration) {
+        completeSliderDuration = duration;
+    }
+
+    public void setInterpolator(TimeInterpolator interpolator) {
+        this.interpolator = interpolator;
+    }
+
+    /**
+     * Moves sliders back and to the completed position with a damped spring that carries the
+     * release velocity instead of the move and complete durations. E.g. a stiffness of 500 and
+     * a damping ratio of 0.75 gives a short bounce. A stiffness of 0 or less disables the spring.
+     */
+    public void setSpring(float stiffness, float dampingRatio) {
+        springStiffness = stiffness;
+        springDampingRatio = dampingRatio;
+    }
+
+    public void setStableBounds(boolean stableBounds) {
+        this.stableBounds = stableBounds;
+        geometryValid = false;
+        if (!stableBounds) {
+            for (DrawableHolder<?> holder : holders) {
+                holder.releaseLayer();
+            }
+        }
+        markChanged(CHANGE_LAYOUT);
+    }
+
+    /**
+     * Sets the release velocity in pixels per second that completes a slide regardless of position.
+     * A value of 0 or less disables fling completion.
+     */
+    public void setFlingVelocity(float velocity) {
+        engine.setFlingVelocity(velocity);
+    }
+
+    /**
+     * Sets how far ahead in milliseconds the dragged slider is drawn along the current velocity.
+     * A value of 0 disables touch prediction.
+     */
+    public void setTouchPredictionTime(long time) {
+        touchPredictionTime = Math.max(time, 0);
+    }
+
+    public void setDescriptionLayerCacheEnabled(boolean enabled) {
+        setDescriptionLayerCache(enabled ? new TextLayerCache(TextLayerCache.DEFAULT_MAX_SIZE_KB) : null);
+    }
+
+    private void setDescriptionLayerCache(TextLayerCache cache) {
+        if (textLayerCache != null) textLayerCache.clear();
+        textLayerCache = cache;
+        for (Description description : descriptions) {
+            if (description.drawable != null) description.drawable.setLayerCache(cache);
+        }
+        markChanged(CHANGE_PAINT);
+    }
+
+    private final ComponentCallbacks2 componentCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (textLayerCache != null) textLayerCache.onTrimMemory(level);
+            if (level >= TRIM_MEMORY_UI_HIDDEN) {
+                for (DrawableHolder<?> holder : holders) {
+                    holder.releaseLayer();
+                    holder.releaseMutation();
+                }
+            }
+            if (level >= TRIM_MEMORY_BACKGROUND) TextMetrics.clear();
+        }
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+        @Override
+        public void onLowMemory() {
+            onTrimMemory(TRIM_MEMORY_COMPLETE);
+        }
+    };
+
+    // follows adaptive refresh rates without querying the display, a binder call before API 30,
+    // on every gesture
+    private final DisplayManager.DisplayListener displayListener = new DisplayManager.DisplayListener() {
+        @Override
+        public void onDisplayAdded(int displayId) {
+        }
+        @Override
+        public void onDisplayRemoved(int displayId) {
+        }
+        @Override
+        public void onDisplayChanged(int displayId) {
+            Display display = getDisplay();
+            if (display != null && display.getDisplayId() == displayId) {
+                defaultFrameClock.setRefreshRate(display.getRefreshRate());
+            }
+        }
+    };
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        Display display = getDisplay();
+        if (display != null) defaultFrameClock.setRefreshRate(display.getRefreshRate());
+        DisplayManager displayManager = (DisplayManager) getContext().getSystemService(Context.DISPLAY_SERVICE);
+        if (displayManager != null) displayManager.registerDisplayListener(displayListener, mainHandler);
+        getContext().getApplicationContext().registerComponentCallbacks(componentCallbacks);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        DisplayManager displayManager = (DisplayManager) getContext().getSystemService(Context.DISPLAY_SERVICE);
+        if (displayManager != null) displayManager.unregisterDisplayListener(displayListener);
+        getContext().getApplicationContext().unregisterComponentCallbacks(componentCallbacks);
+        if (textLayerCache != null) textLayerCache.clear();
+        if (isDragging()) {
+            // the gesture cannot end anymore, so return to where a reattached view should be
+            snapping = true;
+            dispatchState(State.NORMAL, null);
+            snapping = false;
+        }
+        animator.finish();
+        progressDispatcher.cancel();
+        if (metricsRecorder != null) metricsRecorder.cancel();
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        // nothing shows the animations, so jump to where they would end
+        if (!isVisible) animator.finish();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        onVisibilityChangedCompat(visibility);
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        onVisibilityChangedCompat(visibility);
+    }
+
+    private void onVisibilityChangedCompat(int visibility) {
+        // onVisibilityAggregated covers this from API 24, older releases also call this from the
+        // View constructor when android:visibility is set, before the animator exists
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N && visibility != VISIBLE && animator != null) {
+            animator.finish();
+        }
     }
 
     public void reset() {
-        setState(State.NORMAL);
+        cancelCompletion();
+        setState(State.NORMAL, null);
+    }
+
+    private void cancelCompletion() {
+        completeDispatcher.cancel();
+        if (metricsRecorder != null) metricsRecorder.onCompleteCancelled();
+    }
+
+    /**
+     * Cancels all running animations and jumps to the normal state without animating.
+     */
+    public void resetImmediately() {
+        snapToState(null);
+    }
+
+    /**
+     * Cancels all running animations and jumps to the completed state of the left slider
+     * without animating or notifying its listener. Progress listeners only see the completed
+     * state, not a drag before it.
+     */
+    public void snapToLeftComplete() {
+        snapToState(sliderL);
+    }
+
+    /**
+     * Cancels all running animations and jumps to the completed state of the right slider
+     * without animating or notifying its listener.
+     */
+    public void snapToRightComplete() {
+        snapToState(sliderR);
+    }
+
+    /**
+     * Cancels all running animations and jumps to the completed state of the given action
+     * without animating or notifying its listener.
+     */
+    public void snapToActionComplete(int action) {
+        snapToState(sliders[action]);
+    }
+
+    /**
+     * Prepares the view for reuse, e.g. from a RecyclerView adapter: snaps it to the normal
+     * state and drops the slider listeners. Drawables and descriptions are kept, and setting new
+     * ones on a laid out view only recomputes its dimensions.
+     */
+    public void recycle() {
+        resetImmediately();
+        for (Slider slider : sliders) {
+            slider.listener = null;
+        }
+    }
+
+    private static final int CHANGE_PAINT = 1;
+    private static final int CHANGE_LAYOUT = 1 << 1;
+
+    private int batchDepth = 0;
+    private int pendingChanges = 0;
+
+    /**
+     * Runs {@code changes} as one batch: the setters it calls take effect immediately, but the
+     * view lays out at most once after the last of them, or only redraws if none affects layout.
+     */
+    public void edit(Runnable changes) {
+        beginBatch();
+        try {
+            changes.run();
+        } finally {
+            endBatch();
+        }
+    }
+
+    private void beginBatch() {
+        batchDepth++;
+    }
+
+    private void endBatch() {
+        batchDepth--;
+        if (batchDepth == 0) flushChanges();
+    }
+
+    private void markChanged(int change) {
+        pendingChanges |= change;
+        if (batchDepth == 0) flushChanges();
+    }
+
+    private void flushChanges() {
+        int changes = pendingChanges;
+        pendingChanges = 0;
+        if ((changes & CHANGE_LAYOUT) != 0) {
+            if (isLaidOut()) {
+                // content never affects the measured size, so the current layout can be reused
+                installLazyResources();
+                initDimensions();
+                invalidate();
+            } else {
+                requestLayout();
+            }
+        } else if ((changes & CHANGE_PAINT) != 0) {
+            invalidate();
+        }
     }
 
     @Override
@@ -427,12 +1291,59 @@ public class SlideActionView extends View {
     public void onLayout(boolean changed, int left, int top, int right, int bottom) {
         debug("onLayout");
         super.onLayout(changed, left, top, right, bottom);
+        installLazyResources();
         this.initDimensions();
     }
 
     private Rect contentPlace = new Rect();
 
+    private static final int GEOMETRY_KEY_BASE = 8;
+    private static final int GEOMETRY_KEY_PER_SLIDER = 4;
+    private int[] geometryKey = new int[GEOMETRY_KEY_BASE + 2 * GEOMETRY_KEY_PER_SLIDER];
+    private int[] nextGeometryKey = new int[geometryKey.length];
+    private boolean geometryValid = false;
+
+    private boolean updateGeometryKey() {
+        int[] key = nextGeometryKey;
+        key[0] = getWidth();
+        key[1] = getHeight();
+        key[2] = getPaddingLeft();
+        key[3] = getPaddingTop();
+        key[4] = getPaddingRight();
+        key[5] = getPaddingBottom();
+        key[6] = paddingLeftFactor != null ? Float.floatToIntBits(paddingLeftFactor) : -1;
+        key[7] = paddingRightFactor != null ? Float.floatToIntBits(paddingRightFactor) : -1;
+        for (int i = 0; i < sliders.length; i++) {
+            Slider slider = sliders[i];
+            int offset = GEOMETRY_KEY_BASE + i * GEOMETRY_KEY_PER_SLIDER;
+            key[offset] = slider.drawable != null ? slider.drawable.getIntrinsicWidth() : 0;
+            key[offset + 1] = slider.drawable != null ? slider.drawable.getIntrinsicHeight() : 0;
+            key[offset + 2] = slider.marginHorizontal;
+            key[offset + 3] = slider.marginVertical;
+        }
+        if (geometryValid && Arrays.equals(geometryKey, key)) return false;
+        System.arraycopy(key, 0, geometryKey, 0, key.length);
+        geometryValid = true;
+        return true;
+    }
+
     void initDimensions() {
+        if (!updateGeometryKey()) {
+            debug("dimensions unchanged");
+            return;
+        }
+        boolean traced = Tracing.begin("SlideActionView#initDimensions");
+        if (metricsRecorder == null) {
+            computeDimensions();
+        } else {
+            long start = System.nanoTime();
+            computeDimensions();
+            metricsRecorder.onLayout(System.nanoTime() - start);
+        }
+        Tracing.end(traced);
+    }
+
+    private void computeDimensions() {
         int paddingLeft = paddingLeftFactor != null ? (int) (getWidth() * paddingLeftFactor) : getPaddingLeft();
         int paddingRight = paddingRightFactor != null ? getWidth() - (int) (getWidth() * paddingRightFactor) : getPaddingRight();
         int contentWidth = Math.max(getWidth() - paddingLeft - paddingRight, 0);
@@ -442,11 +1353,22 @@ public class SlideActionView extends View {
                 paddingLeft + contentWidth,
                 getHeight() - getPaddingBottom());
         sliderBg.initDimensions();
-        sliderL.initDimensions();
-        sliderR.initDimensions();
-        sliderDesc.initDimensions();
-        sliderLeftDesc.initDimensions();
-        sliderRightDesc.initDimensions();
+        for (Slider slider : sliders) {
+            slider.initDimensions();
+        }
+        for (Description description : descriptions) {
+            description.initDimensions();
+        }
+        engine.updateHitColumns(getWidth());
+    }
+
+    private Slider hitTest(float x, float y) {
+        // only the last dragged slider can still be away from its position
+        if (lastDraggedSlider != null && lastDraggedSlider.checkSlideStart(x, y)) return lastDraggedSlider;
+        int index = engine.getColumnOwner(x);
+        if (index == SlideEngine.NONE) return null;
+        Slider slider = sliders[index];
+        return slider != lastDraggedSlider && slider.checkSlideStart(x, y) ? slider : null;
     }
 
     @Override
@@ -455,114 +1377,223 @@ public class SlideActionView extends View {
         return true;
     }
 
-    private float touchGap;
-    private Point touchPoint = new Point();
+    private VelocityTracker velocityTracker;
+    private TouchTraceRecorder touchTraceRecorder = null;
+
+    /**
+     * Records every touch event the view receives into the given recorder, or stops recording
+     * if it is null.
+     */
+    public void setTouchTraceRecorder(TouchTraceRecorder recorder) {
+        touchTraceRecorder = recorder;
+    }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        debug("onTouchEvent " + event.getAction());
-        touchPoint.set((int) event.getX(), (int) event.getY());
+        boolean traced = Tracing.begin("SlideActionView#onTouchEvent");
+        if (touchTraceRecorder != null) touchTraceRecorder.record(event, getWidth(), getHeight());
+        boolean handled;
+        if (metricsRecorder == null) {
+            handled = handleTouchEvent(event);
+        } else {
+            long start = System.nanoTime();
+            handled = handleTouchEvent(event);
+            metricsRecorder.onTouchEvent(event.getHistorySize() + 1, System.nanoTime() - start);
+        }
+        Tracing.end(traced);
+        return handled;
+    }
+
+    private boolean handleTouchEvent(MotionEvent event) {
+        debug("onTouchEvent ", event.getAction());
+        float x = event.getX();
+        float y = event.getY();
         if (event.getAction() == MotionEvent.ACTION_DOWN) {
-            switch (state) {
-                case NORMAL:
-                    if (sliderL.checkSlideStart(touchPoint)) {
-                        getParent().requestDisallowInterceptTouchEvent(true);
-                        debug("left active");
-                        touchGap = Math.max(touchPoint.x - sliderL.position.centerX(), 0);
-                        setState(State.DRAG_SLIDER_LEFT);
-                        return true;
-                    } else if (sliderR.checkSlideStart(touchPoint)) {
-                        getParent().requestDisallowInterceptTouchEvent(true);
-                        debug("right active");
-                        touchGap = Math.min(touchPoint.x - sliderR.position.centerX(), 0);
-                        setState(State.DRAG_SLIDER_RIGHT);
-                        return true;
-                    }
-                    break;
-                case DRAG_SLIDER_LEFT:
-                case DRAG_SLIDER_RIGHT:
+            if (state == State.NORMAL) {
+                Slider slider = hitTest(x, y);
+                if (slider != null) {
+                    getParent().requestDisallowInterceptTouchEvent(true);
+                    debug("active ", slider.name);
+                    startDrag(event, slider);
+                    setState(slider.dragState, slider);
+                    return true;
+                }
             }
         } else if (event.getAction() == MotionEvent.ACTION_UP) {
-            switch (state) {
-                case DRAG_SLIDER_LEFT:
-                    getParent().requestDisallowInterceptTouchEvent(false);
-                    if (sliderL.performDrop(touchPoint)) {
-                        setState(State.COMPLETE_SLIDER_LEFT);
-                    } else {
-                        setState(State.NORMAL);
-                    }
-                    return true;
-                case DRAG_SLIDER_RIGHT:
-                    getParent().requestDisallowInterceptTouchEvent(false);
-                    if (sliderR.performDrop(touchPoint)) {
-                        setState(State.COMPLETE_SLIDER_RIGHT);
-                    } else {
-                        setState(State.NORMAL);
-                    }
-                    return true;
-                case NORMAL:
+            if (isDragging()) {
+                getParent().requestDisallowInterceptTouchEvent(false);
+                performDrop(event, activeSlider);
+                return true;
             }
             performClick();
         } else if (event.getAction() == MotionEvent.ACTION_MOVE) {
-            Point sliderCenter = new Point((int) (touchPoint.x - touchGap), contentPlace.centerY());
-            switch (state) {
-                case DRAG_SLIDER_LEFT:
-                    if (sliderL.position.centerX() > sliderCenter.x) {
-                        sliderCenter.x = sliderL.position.centerX();
-                        if (touchGap > 0) touchGap = Math.max(touchPoint.x, sliderL.position.left) - sliderCenter.x;
-                    } else if (sliderL.target.centerX() < sliderCenter.x) {
-                        sliderCenter.x = sliderL.target.centerX();
-                        touchGap = 0;
-                    }
-                    sliderL.performMove(sliderCenter);
-                    invalidate();
-                    return true;
-                case DRAG_SLIDER_RIGHT:
-                    if (sliderR.position.centerX() < sliderCenter.x) {
-                        sliderCenter.x = sliderR.position.centerX();
-                        if (touchGap < 0) touchGap = Math.min(touchPoint.x, sliderR.position.right) - sliderCenter.x;
-                    } else if (sliderR.target.centerX() > sliderCenter.x) {
-                        sliderCenter.x = sliderR.target.centerX();
-                        touchGap = 0;
-                    }
-                    sliderR.performMove(sliderCenter);
-                    invalidate();
-                    return true;
-                case NORMAL:
+            if (isDragging()) {
+                performDrag(event, activeSlider);
+                return true;
             }
         }
         return false;
     }
 
+    private void startDrag(MotionEvent event, Slider slider) {
+        if (metricsRecorder != null) metricsRecorder.onGestureStart();
+        // continue from where a returning slider currently is
+        animator.cancelBounds(slider);
+        animator.cancelBounds(sliderBg);
+        lastDraggedSlider = slider;
+        engine.startDrag(slider.index, event.getX(), slider.frame.exactCenterX());
+        if (velocityTracker == null) velocityTracker = VelocityTracker.obtain();
+        velocityTracker.clear();
+        velocityTracker.addMovement(event);
+    }
+
+    private void performDrag(MotionEvent event, Slider slider) {
+        if (velocityTracker != null) velocityTracker.addMovement(event);
+        for (int i = 0; i < event.getHistorySize(); i++) {
+            engine.dragCenter(slider.index, event.getHistoricalX(i));
+        }
+        float centerX = engine.dragCenter(slider.index, event.getX());
+        if (touchPredictionTime > 0 && velocityTracker != null) {
+            velocityTracker.computeCurrentVelocity(1000);
+            centerX = engine.clampCenter(slider.index, centerX + velocityTracker.getXVelocity() * touchPredictionTime / 1000f);
+        }
+        slider.performMove(centerX, contentPlace.exactCenterY());
+        sliderBg.followSliders();
+        invalidateDirty();
+    }
+
+    private void performDrop(MotionEvent event, Slider slider) {
+        if (metricsRecorder != null) metricsRecorder.onGestureEnd();
+        releaseVelocity = computeVelocity(event);
+        boolean complete = slider.performDrop(event.getX(), releaseVelocity);
+        if (complete) {
+            // only the synchronous listener runs before the complete animation starts
+            boolean synchronous = completeDispatcher.getDispatch() == CompleteDispatch.SYNCHRONOUS;
+            if (synchronous) completeDispatcher.dispatch(slider.listener, metricsRecorder);
+            setState(slider.completeState, slider);
+            if (!synchronous) completeDispatcher.dispatch(slider.listener, metricsRecorder);
+        } else {
+            setState(State.NORMAL, null);
+        }
+        releaseVelocity = 0;
+        if (metricsRecorder != null) metricsRecorder.onDrop(complete);
+    }
+
+    private float computeVelocity(MotionEvent event) {
+        // only fling completion and springs use the release velocity
+        if (velocityTracker == null || engine.getFlingVelocity() <= 0 && springStiffness <= 0) return 0;
+        velocityTracker.addMovement(event);
+        velocityTracker.computeCurrentVelocity(1000);
+        return velocityTracker.getXVelocity();
+    }
+
     @Override
     public void onDraw(Canvas canvas) {
-        sliderBg.drawIfPossible(canvas);
-        sliderDesc.drawIfPossible(canvas);
-        sliderLeftDesc.drawIfPossible(canvas);
-        sliderRightDesc.drawIfPossible(canvas);
-        sliderL.drawIfPossible(canvas);
-        sliderR.drawIfPossible(canvas);
+        boolean traced = Tracing.begin("SlideActionView#onDraw");
+        if (metricsRecorder == null) {
+            drawHolders(canvas);
+        } else {
+            long start = System.nanoTime();
+            drawHolders(canvas);
+            metricsRecorder.onDraw(System.nanoTime() - start);
+        }
+        Tracing.end(traced);
+    }
+
+    private void drawHolders(Canvas canvas) {
+        if (!visibilityValid) {
+            // state and layout changes invalidate the whole view, so no dirty area is needed
+            updateVisibility();
+            dirtyRect.setEmpty();
+        }
+        for (DrawableHolder<?> holder : holders) {
+            if (!holder.visible) continue;
+            if (holder == sliderBg && occluderCount > 0) {
+                drawBackgroundAroundOccluders(canvas);
+            } else {
+                holder.drawContent(canvas);
+            }
+        }
+    }
+
+    private void drawBackgroundAroundOccluders(Canvas canvas) {
+        int saveCount = canvas.save();
+        for (int i = 0; i < occluderCount; i++) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                canvas.clipOutRect(occluders[i]);
+            } else {
+                //noinspection deprecation
+                canvas.clipRect(occluders[i], Region.Op.DIFFERENCE);
+            }
+        }
+        sliderBg.drawContent(canvas);
+        canvas.restoreToCount(saveCount);
     }
 
-    private final TypeEvaluator<Rect> RECT_TYPE_EVALUATOR = new RectEvaluator();
+    /**
+     * Decides which holders are drawn and which sliders hide the background, once per change of
+     * state, geometry or alpha rather than on every draw.
+     */
+    private void updateVisibility() {
+        if (visibilityValid) return;
+        visibilityValid = true;
+        for (DrawableHolder<?> holder : holders) {
+            boolean visible = holder.canDraw();
+            if (visible != holder.visible) {
+                holder.visible = visible;
+                holder.onVisibilityChanged();
+            }
+        }
+        occluderCount = 0;
+        if (!sliderBg.visible) return;
+        for (Slider slider : sliders) {
+            if (slider.isOpaque() && Rect.intersects(slider.frame, sliderBg.frame)) {
+                occluders[occluderCount++] = slider.frame;
+            }
+        }
+    }
 
-    private void move(Drawable target, long duration, Rect dist) {
-        if (target != null) startAnimation(ObjectAnimator.ofObject(target, "bounds", RECT_TYPE_EVALUATOR, target.getBounds(), new Rect(dist)), duration);
+    private void move(DrawableHolder<?> target, long duration, Rect dist) {
+        if (target.drawable == null) return;
+        if (snapping) {
+            target.setFrame(dist);
+        } else if (springStiffness > 0) {
+            float distance = dist.exactCenterX() - target.frame.exactCenterX();
+            float velocity = Math.abs(distance) >= 1 ? releaseVelocity / distance : 0;
+            animator.springBounds(target, springStiffness, springDampingRatio, velocity, dist);
+        } else {
+            animator.animateBounds(target, duration, interpolator, dist);
+        }
     }
 
-    private void show(Drawable target, long duration) {
-        if (target != null) startAnimation(ObjectAnimator.ofInt(target, "alpha", target.getAlpha(), 255), duration);
+    private void show(DrawableHolder<?> target, long duration) {
+        if (target.drawable == null) return;
+        if (snapping) {
+            target.setAlpha(255);
+        } else {
+            animator.animateAlpha(target, duration, interpolator, 255);
+        }
     }
 
-    private void hide(Drawable target, long duration) {
-        if (target != null) startAnimation(ObjectAnimator.ofInt(target, "alpha", target.getAlpha(), 0), duration);
+    private void hide(DrawableHolder<?> target, long duration) {
+        if (target.drawable == null) return;
+        if (snapping) {
+            target.setAlpha(0);
+        } else {
+            animator.animateAlpha(target, duration, interpolator, 0);
+        }
     }
 
-    private void startAnimation(ObjectAnimator animator, long duration) {
-        animator.setDuration(duration);
-        animator.setAutoCancel(true);
-        animator.addUpdateListener(animatorUpdateListener);
-        animator.start();
+    private void invalidateDirty() {
+        if (progressDispatcher.isActive()) progressDispatcher.schedule();
+        updateVisibility();
+        if (!dirtyRect.isEmpty()) {
+            // drawables such as shadowed text may paint slightly outside of their bounds
+            dirtyRect.inset(-DIRTY_MARGIN, -DIRTY_MARGIN);
+            //noinspection deprecation
+            invalidate(dirtyRect.left, dirtyRect.top, dirtyRect.right, dirtyRect.bottom);
+            dirtyRect.setEmpty();
+        }
     }
 
     private static int dip(int dip) {
@@ -572,4 +1603,12 @@ public class SlideActionView extends View {
     private static void debug(String message) {
         if (debugMode) Log.d("SlideActionView", message);
     }
+
+    private static void debug(String message, int value) {
+        if (debugMode) Log.d("SlideActionView", message + value);
+    }
+
+    private static void debug(String message, Object value) {
+        if (debugMode) Log.d("SlideActionView", message + value);
+    }
 }
@@ -16,6 +16,7 @@ package com.ageet.slideactionview;
  * limitations under the License.
  */
 import android.content.res.Resources;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.ColorFilter;
@@ -30,28 +31,57 @@ class TextDrawable extends Drawable {
     private static final int DEFAULT_TEXT_SIZE = sp(48);
     private static final int DEFAULT_SHADOW_COLOR = Color.BLACK;
     private static final float DEFAULT_SHADOW_RADIUS = 3f;
-    private Paint mPaint = new Paint();
+    private final Paint mPaint;
     private String mText;
-    private int mIntrinsicWidth;
-    private int mIntrinsicHeight;
+    private TextMetrics mMetrics;
+    private float mTextX;
+    private float mTextY;
+    private TextLayerCache mLayerCache;
+    private Canvas mLayerCanvas;
+    private Paint mLayerPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private Rect mLayerRect = new Rect();
 
     TextDrawable(String text) {
+        this(text, new Paint());
+    }
+
+    TextDrawable(String text, Paint paint) {
         mText = text;
+        mPaint = paint;
         mPaint.setColor(DEFAULT_TEXT_COLOR);
         mPaint.setTextSize(DEFAULT_TEXT_SIZE);
         mPaint.setTextAlign(Align.CENTER);
         mPaint.setShadowLayer(DEFAULT_SHADOW_RADIUS, 0, 0, DEFAULT_SHADOW_COLOR);
         mPaint.setAntiAlias(true);
-        mIntrinsicWidth = (int) (mPaint.measureText(mText, 0, mText.length()) + .5);
-        mIntrinsicHeight = mPaint.getFontMetricsInt(null);
+    }
+    /**
+     * Creates a drawable with its metrics already measured. May be called on any thread.
+     */
+    static TextDrawable premeasured(String text) {
+        if (text == null) return null;
+        TextDrawable drawable = new TextDrawable(text);
+        drawable.measure();
+        return drawable;
     }
     @Override
     public void draw(Canvas canvas) {
-        Rect bounds = getBounds();
-        setTextSizeForWidth(bounds.width());
-        Rect textBounds = new Rect();
-        mPaint.getTextBounds(mText, 0, mText.length(), textBounds);
-        canvas.drawText(mText, bounds.centerX(), bounds.centerY() - ((mPaint.descent() + mPaint.ascent()) / 2), mPaint);
+        if (mLayerCache == null) {
+            canvas.drawText(mText, mTextX, mTextY, mPaint);
+            return;
+        }
+        Bitmap layer = mLayerCache.get(this);
+        if (layer == null) {
+            layer = rasterize();
+            if (layer == null) return;
+            mLayerCache.put(this, layer);
+        }
+        canvas.drawBitmap(layer, mLayerRect.left, mLayerRect.top, mLayerPaint);
+    }
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        updateLayout(bounds);
+        invalidateLayer();
     }
     @Override
     public int getOpacity() {
@@ -59,36 +89,75 @@ class TextDrawable extends Drawable {
     }
     @Override
     public int getIntrinsicWidth() {
-        return mIntrinsicWidth;
+        return measure().width;
     }
     @Override
     public int getIntrinsicHeight() {
-        return mIntrinsicHeight;
+        return measure().height;
+    }
+
+    TextMetrics measure() {
+        if (mMetrics == null) mMetrics = TextMetrics.obtain(mText, mPaint, DEFAULT_TEXT_SIZE);
+        return mMetrics;
     }
     @Override
     public void setAlpha(int alpha) {
         mPaint.setAlpha(alpha);
+        mLayerPaint.setAlpha(alpha);
     }
     @Override
     public void setColorFilter(ColorFilter filter) {
         mPaint.setColorFilter(filter);
+        mLayerPaint.setColorFilter(filter);
     }
 
     public void setTextColor(int color) {
         mPaint.setColor(color);
+        invalidateLayer();
     }
 
     public void setShadowColor(int color) {
         mPaint.setShadowLayer(DEFAULT_SHADOW_RADIUS, 0, 0, color);
+        invalidateLayer();
     }
 
-    private Rect mTempRect = new Rect();
+    void setLayerCache(TextLayerCache layerCache) {
+        invalidateLayer();
+        mLayerCache = layerCache;
+    }
 
-    private void setTextSizeForWidth(float desiredWidth) {
-        mPaint.setTextSize(DEFAULT_TEXT_SIZE);
-        mPaint.getTextBounds(mText, 0, mText.length(), mTempRect);
-        float desiredTextSize = mPaint.getTextSize() * desiredWidth / mTempRect.width();
-        mPaint.setTextSize(desiredTextSize);
+    private void invalidateLayer() {
+        if (mLayerCache != null) mLayerCache.remove(this);
+    }
+
+    private Bitmap rasterize() {
+        if (mLayerRect.isEmpty()) return null;
+        Bitmap layer = Bitmap.createBitmap(mLayerRect.width(), mLayerRect.height(), Bitmap.Config.ARGB_8888);
+        if (mLayerCanvas == null) mLayerCanvas = new Canvas();
+        mLayerCanvas.setBitmap(layer);
+        int alpha = mPaint.getAlpha();
+        mPaint.setAlpha(255);
+        mLayerCanvas.drawText(mText, mTextX - mLayerRect.left, mTextY - mLayerRect.top, mPaint);
+        mPaint.setAlpha(alpha);
+        mLayerCanvas.setBitmap(null);
+        return layer;
+    }
+
+    private void updateLayout(Rect bounds) {
+        TextMetrics metrics = measure();
+        float textSize = metrics.boundsWidth > 0 ? metrics.textSize * bounds.width() / metrics.boundsWidth : metrics.textSize;
+        mPaint.setTextSize(textSize);
+        float scale = textSize / metrics.textSize;
+        float ascent = metrics.ascent * scale;
+        float descent = metrics.descent * scale;
+        mTextX = bounds.centerX();
+        mTextY = bounds.centerY() - ((descent + ascent) / 2);
+        int padding = (int) Math.ceil(DEFAULT_SHADOW_RADIUS) + 1;
+        mLayerRect.set(
+                bounds.left - padding,
+                (int) Math.floor(mTextY + ascent) - padding,
+                bounds.right + padding,
+                (int) Math.ceil(mTextY + descent) + padding);
     }
 
     private static int sp(int sp) {
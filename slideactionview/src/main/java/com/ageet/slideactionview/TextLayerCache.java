@@ -0,0 +1,47 @@
+package com.ageet.slideactionview;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+/**
+ * Bounded cache of pre-rasterized {@link TextDrawable} layers, sized in kilobytes.
+ */
+class TextLayerCache {
+    static final int DEFAULT_MAX_SIZE_KB = 4 * 1024;
+
+    private final LruCache<TextDrawable, Bitmap> layers;
+
+    TextLayerCache(int maxSizeKb) {
+        layers = new LruCache<TextDrawable, Bitmap>(maxSizeKb) {
+            @Override
+            protected int sizeOf(TextDrawable key, Bitmap value) {
+                return Math.max(value.getByteCount() / 1024, 1);
+            }
+        };
+    }
+
+    Bitmap get(TextDrawable drawable) {
+        return layers.get(drawable);
+    }
+
+    void put(TextDrawable drawable, Bitmap layer) {
+        layers.put(drawable, layer);
+    }
+
+    void remove(TextDrawable drawable) {
+        layers.remove(drawable);
+    }
+
+    void clear() {
+        layers.evictAll();
+    }
+
+    void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            layers.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            layers.trimToSize(layers.maxSize() / 2);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ageet.slideactionview;
+
+import android.annotation.TargetApi;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Build;
+import android.text.PrecomputedText;
+import android.text.TextPaint;
+import android.util.LruCache;
+
+/**
+ * Text measurements at a reference text size, shared by all {@link TextDrawable}s in the process.
+ * Metrics for any other size are derived by scaling, so one entry serves every width.
+ * Measuring is thread safe, so descriptions can be measured ahead of time on a worker thread.
+ */
+final class TextMetrics {
+    private static final int MAX_ENTRIES = 64;
+    private static final LruCache<String, TextMetrics> CACHE = new LruCache<>(MAX_ENTRIES);
+
+    final float textSize;
+    final int boundsWidth;
+    final int width;
+    final int height;
+    final float ascent;
+    final float descent;
+
+    private TextMetrics(Paint paint, Rect bounds, float width) {
+        textSize = paint.getTextSize();
+        boundsWidth = bounds.width();
+        this.width = (int) (width + .5);
+        height = paint.getFontMetricsInt(null);
+        ascent = paint.ascent();
+        descent = paint.descent();
+    }
+
+    private static TextMetrics measure(String text, Paint paint) {
+        // PrecomputedText exists from API 28, but getBounds and getWidth are public only from API 29
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) return measurePrecomputed(text, paint);
+        Rect bounds = new Rect();
+        paint.getTextBounds(text, 0, text.length(), bounds);
+        return new TextMetrics(paint, bounds, paint.measureText(text, 0, text.length()));
+    }
+
+    @TargetApi(Build.VERSION_CODES.Q)
+    private static TextMetrics measurePrecomputed(String text, Paint paint) {
+        // shapes the text once with bidi and script runs resolved like a TextView would
+        PrecomputedText precomputed = PrecomputedText.create(text, new PrecomputedText.Params.Builder(new TextPaint(paint)).build());
+        Rect bounds = new Rect();
+        precomputed.getBounds(0, text.length(), bounds);
+        return new TextMetrics(paint, bounds, precomputed.getWidth(0, text.length()));
+    }
+
+    static TextMetrics obtain(String text, Paint paint, float textSize) {
+        String key = textSize + "|" + paint.getTextScaleX() + "|" + paint.getFlags()
+                + "|" + System.identityHashCode(paint.getTypeface()) + "|" + text;
+        TextMetrics metrics = CACHE.get(key);
+        if (metrics == null) {
+            Paint measurePaint = new Paint(paint);
+            measurePaint.setTextSize(textSize);
+            metrics = measure(text, measurePaint);
+            CACHE.put(key, metrics);
+        }
+        return metrics;
+    }
+
+    static void clear() {
+        CACHE.evictAll();
+    }
+}
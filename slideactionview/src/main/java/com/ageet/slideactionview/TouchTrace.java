@@ -0,0 +1,159 @@
+package com.ageet.slideactionview;
+
+import java.util.Arrays;
+
+/**
+ * Touch samples read from a trace written by {@link TouchTraceRecorder}.
+ */
+public final class TouchTrace {
+    private int count = 0;
+    private long[] times = new long[64];
+    private int[] actions = new int[64];
+    private float[] xs = new float[64];
+    private float[] ys = new float[64];
+    private boolean[] batched = new boolean[64];
+    private int[] widths = new int[64];
+    private int[] heights = new int[64];
+    private final boolean truncated;
+
+    private TouchTrace(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    /**
+     * Parses a trace.
+     *
+     * @throws IllegalArgumentException if the data is not a trace of a supported version
+     */
+    public static TouchTrace read(byte[] data) {
+        if (data.length < TouchTraceRecorder.HEADER_SIZE || readInt(data, 0) != TouchTraceRecorder.MAGIC) {
+            throw new IllegalArgumentException("not a touch trace");
+        }
+        if (data[4] != TouchTraceRecorder.VERSION) {
+            throw new IllegalArgumentException("unsupported touch trace version " + data[4]);
+        }
+        TouchTrace trace = new TouchTrace((data[5] & TouchTraceRecorder.FLAG_TRUNCATED) != 0);
+        Reader reader = new Reader(data);
+        long time = 0;
+        int width = 0;
+        int height = 0;
+        while (reader.offset < data.length) {
+            int type = data[reader.offset++] & 0xff;
+            if (type == TouchTraceRecorder.RECORD_SIZE) {
+                width = reader.readVarint();
+                height = reader.readVarint();
+                continue;
+            }
+            time += reader.readVarint();
+            float x = reader.readCoordinate();
+            float y = reader.readCoordinate();
+            trace.add(time, type & ~TouchTraceRecorder.FLAG_BATCHED, x, y,
+                    (type & TouchTraceRecorder.FLAG_BATCHED) != 0, width, height);
+        }
+        return trace;
+    }
+
+    private static final class Reader {
+        final byte[] data;
+        int offset = TouchTraceRecorder.HEADER_SIZE;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = next();
+                value |= (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("malformed varint at " + offset);
+        }
+
+        float readCoordinate() {
+            int high = next();
+            int low = next() & 0xff;
+            return (short) ((high << 8) | low) / TouchTraceRecorder.COORDINATE_SCALE;
+        }
+
+        private byte next() {
+            if (offset >= data.length) throw new IllegalArgumentException("truncated record at " + offset);
+            return data[offset++];
+        }
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xff) << 24 | (data[offset + 1] & 0xff) << 16
+                | (data[offset + 2] & 0xff) << 8 | (data[offset + 3] & 0xff);
+    }
+
+    private void add(long time, int action, float x, float y, boolean batched, int width, int height) {
+        if (count == times.length) {
+            int capacity = count * 2;
+            times = Arrays.copyOf(times, capacity);
+            actions = Arrays.copyOf(actions, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            this.batched = Arrays.copyOf(this.batched, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+        }
+        times[count] = time;
+        actions[count] = action;
+        xs[count] = x;
+        ys[count] = y;
+        this.batched[count] = batched;
+        widths[count] = width;
+        heights[count] = height;
+        count++;
+    }
+
+    /**
+     * Returns true if the recorder ran out of space, so that the trace may end mid-gesture.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public int getSampleCount() {
+        return count;
+    }
+
+    /**
+     * Returns the time of a sample in milliseconds since the first sample.
+     */
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    /**
+     * Returns the masked MotionEvent action of a sample.
+     */
+    public int getAction(int index) {
+        return actions[index];
+    }
+
+    public float getX(int index) {
+        return xs[index];
+    }
+
+    public float getY(int index) {
+        return ys[index];
+    }
+
+    /**
+     * Returns true if the sample was a historical sample of the event that the next sample ends.
+     */
+    public boolean isBatched(int index) {
+        return batched[index];
+    }
+
+    public int getWidth(int index) {
+        return widths[index];
+    }
+
+    public int getHeight(int index) {
+        return heights[index];
+    }
+}
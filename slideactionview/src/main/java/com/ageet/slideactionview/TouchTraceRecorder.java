@@ -0,0 +1,133 @@
+package com.ageet.slideactionview;
+
+import android.view.MotionEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Records the touch events of a {@link SlideActionView} into a compact binary trace that
+ * {@link TouchTrace} reads back, e.g. to attach real gestures to jank reports.
+ *
+ * <p>The trace starts with the magic "SAVT", a version byte and a flags byte. Every sample,
+ * including the historical samples of batched moves, is one record: the masked action with
+ * bit 7 set if the sample is batched into the next one, the time since the previous sample in
+ * milliseconds as a varint, and x and y in quarter pixels as 16 bit integers. A size record
+ * with type 0x7f and the width and height as varints precedes the first sample and follows
+ * every resize. Recording stops silently once the buffer is full, and the trace is then marked
+ * as truncated.
+ */
+public class TouchTraceRecorder {
+    static final int MAGIC = 0x53415654;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 6;
+    static final int FLAG_TRUNCATED = 1;
+    static final int RECORD_SIZE = 0x7f;
+    static final int FLAG_BATCHED = 0x80;
+    static final float COORDINATE_SCALE = 4f;
+    // type, up to three varint bytes of time delta and two coordinates
+    private static final int MAX_SAMPLE_SIZE = 1 + 3 + 4;
+    // type and two varints
+    private static final int MAX_SIZE_RECORD_SIZE = 1 + 5 + 5;
+
+    private final byte[] buffer;
+    private int length = HEADER_SIZE;
+    private long lastTime = -1;
+    private int lastWidth = -1;
+    private int lastHeight = -1;
+    private boolean truncated = false;
+
+    /**
+     * @param capacity maximum size of the trace in bytes, about 7 bytes per touch sample
+     */
+    public TouchTraceRecorder(int capacity) {
+        buffer = new byte[Math.max(capacity, HEADER_SIZE)];
+    }
+
+    void record(MotionEvent event, int width, int height) {
+        if (truncated) return;
+        if (width != lastWidth || height != lastHeight) {
+            if (length + MAX_SIZE_RECORD_SIZE > buffer.length) {
+                truncated = true;
+                return;
+            }
+            buffer[length++] = (byte) RECORD_SIZE;
+            writeVarint(width);
+            writeVarint(height);
+            lastWidth = width;
+            lastHeight = height;
+        }
+        for (int i = 0; i < event.getHistorySize(); i++) {
+            writeSample(MotionEvent.ACTION_MOVE | FLAG_BATCHED, event.getHistoricalEventTime(i), event.getHistoricalX(i), event.getHistoricalY(i));
+        }
+        writeSample(event.getActionMasked(), event.getEventTime(), event.getX(), event.getY());
+    }
+
+    private void writeSample(int type, long time, float x, float y) {
+        if (truncated || length + MAX_SAMPLE_SIZE > buffer.length) {
+            truncated = true;
+            return;
+        }
+        long delta = lastTime < 0 ? 0 : Math.max(time - lastTime, 0);
+        lastTime = time;
+        buffer[length++] = (byte) type;
+        // deltas above ~35 minutes are clamped, a gesture never pauses that long
+        writeVarint((int) Math.min(delta, (1 << 21) - 1));
+        writeCoordinate(x);
+        writeCoordinate(y);
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7f) != 0) {
+            buffer[length++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private void writeCoordinate(float value) {
+        int scaled = Math.round(value * COORDINATE_SCALE);
+        scaled = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, scaled));
+        buffer[length++] = (byte) (scaled >> 8);
+        buffer[length++] = (byte) scaled;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Returns the size of the trace in bytes.
+     */
+    public int size() {
+        return length;
+    }
+
+    public void clear() {
+        length = HEADER_SIZE;
+        lastTime = -1;
+        lastWidth = -1;
+        lastHeight = -1;
+        truncated = false;
+    }
+
+    public byte[] toByteArray() {
+        writeHeader();
+        return Arrays.copyOf(buffer, length);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        writeHeader();
+        out.write(buffer, 0, length);
+    }
+
+    private void writeHeader() {
+        buffer[0] = (byte) (MAGIC >> 24);
+        buffer[1] = (byte) (MAGIC >> 16);
+        buffer[2] = (byte) (MAGIC >> 8);
+        buffer[3] = (byte) MAGIC;
+        buffer[4] = (byte) VERSION;
+        buffer[5] = (byte) (truncated ? FLAG_TRUNCATED : 0);
+    }
+}
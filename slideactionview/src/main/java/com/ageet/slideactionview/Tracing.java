@@ -0,0 +1,23 @@
+package com.ageet.slideactionview;
+
+import android.os.Trace;
+
+/**
+ * System trace sections around the hot paths of {@link SlideActionView}, enabled by a flag.
+ */
+final class Tracing {
+    static volatile boolean enabled = false;
+
+    private Tracing() {
+    }
+
+    static boolean begin(String sectionName) {
+        if (!enabled) return false;
+        Trace.beginSection(sectionName);
+        return true;
+    }
+
+    static void end(boolean begun) {
+        if (begun) Trace.endSection();
+    }
+}
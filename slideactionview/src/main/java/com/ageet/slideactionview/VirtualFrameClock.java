@@ -0,0 +1,102 @@
+package com.ageet.slideactionview;
+
+import android.view.Choreographer;
+
+import java.util.Arrays;
+
+/**
+ * Frame clock that only advances when {@link #step()} is called, so that animations can be
+ * verified frame by frame, e.g. in unit tests. Callbacks posted while a frame runs are called
+ * on the next frame.
+ */
+public class VirtualFrameClock implements FrameClock {
+    private final long frameIntervalNanos;
+    private long frameTimeNanos = 0;
+    private Choreographer.FrameCallback[] callbacks = new Choreographer.FrameCallback[8];
+    private Choreographer.FrameCallback[] running = new Choreographer.FrameCallback[8];
+    private int callbackCount = 0;
+
+    public VirtualFrameClock(float refreshRate) {
+        frameIntervalNanos = (long) (1000000000L / refreshRate);
+    }
+
+    public long getFrameTimeNanos() {
+        return frameTimeNanos;
+    }
+
+    /**
+     * Returns true if a callback is waiting for the next frame.
+     */
+    public boolean hasPendingFrame() {
+        for (int i = 0; i < callbackCount; i++) {
+            if (callbacks[i] != null) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Advances the clock by one frame interval and calls the callbacks posted before.
+     */
+    public void step() {
+        frameTimeNanos += frameIntervalNanos;
+        Choreographer.FrameCallback[] frame = callbacks;
+        int count = callbackCount;
+        callbacks = running;
+        running = frame;
+        callbackCount = 0;
+        for (int i = 0; i < count; i++) {
+            Choreographer.FrameCallback callback = frame[i];
+            frame[i] = null;
+            if (callback != null) callback.doFrame(frameTimeNanos);
+        }
+    }
+
+    /**
+     * Advances the clock by the given number of frame intervals without calling any callback,
+     * like frames the display missed.
+     */
+    public void skip(int frames) {
+        frameTimeNanos += frames * frameIntervalNanos;
+    }
+
+    public void step(int frames) {
+        for (int i = 0; i < frames; i++) {
+            step();
+        }
+    }
+
+    /**
+     * Steps until no callback is pending or {@code maxFrames} have run and returns the number of
+     * frames stepped.
+     */
+    public int stepUntilIdle(int maxFrames) {
+        int frames = 0;
+        while (hasPendingFrame() && frames < maxFrames) {
+            step();
+            frames++;
+        }
+        return frames;
+    }
+
+    @Override
+    public void postFrameCallback(Choreographer.FrameCallback callback) {
+        if (callbackCount == callbacks.length) callbacks = Arrays.copyOf(callbacks, callbackCount * 2);
+        callbacks[callbackCount++] = callback;
+    }
+
+    @Override
+    public void removeFrameCallback(Choreographer.FrameCallback callback) {
+        for (int i = 0; i < callbackCount; i++) {
+            if (callbacks[i] == callback) callbacks[i] = null;
+        }
+        // a callback removed while the frame runs must not be called anymore
+        for (int i = 0; i < running.length; i++) {
+            if (running[i] == callback) running[i] = null;
+        }
+    }
+
+    @Override
+    public long getFrameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+}
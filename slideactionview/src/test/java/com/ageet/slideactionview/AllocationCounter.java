@@ -0,0 +1,38 @@
+package com.ageet.slideactionview;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts bytes allocated by the current thread using the HotSpot thread MXBean.
+ */
+final class AllocationCounter {
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final long threadId = Thread.currentThread().getId();
+    private long start;
+
+    AllocationCounter() {
+        THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    void start() {
+        start = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+    }
+
+    long stop() {
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - start;
+    }
+
+    /**
+     * Runs {@code work} twice and returns the bytes allocated by the second run, so that lazily
+     * initialized framework state is not counted.
+     */
+    static long countAfterWarmUp(Runnable work) {
+        work.run();
+        AllocationCounter counter = new AllocationCounter();
+        counter.start();
+        work.run();
+        return counter.stop();
+    }
+}
@@ -0,0 +1,84 @@
+package com.ageet.slideactionview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Region;
+
+/**
+ * Canvas that only counts draw operations, so that recording a frame does not allocate.
+ */
+class CountingCanvas extends Canvas {
+    int drawCalls;
+    int textCalls;
+    int clipOutCalls;
+
+    void reset() {
+        drawCalls = 0;
+        textCalls = 0;
+        clipOutCalls = 0;
+    }
+
+    @Override
+    public void drawRect(Rect rect, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawRect(RectF rect, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        drawCalls++;
+        textCalls++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        drawCalls++;
+    }
+
+    @Override
+    public int save() {
+        return 1;
+    }
+
+    @Override
+    public void restoreToCount(int saveCount) {
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+    }
+
+    @Override
+    public boolean clipRect(Rect rect) {
+        return true;
+    }
+
+    @Override
+    public boolean clipOutRect(Rect rect) {
+        clipOutCalls++;
+        return true;
+    }
+
+    @Override
+    public boolean clipRect(Rect rect, Region.Op op) {
+        clipOutCalls++;
+        return true;
+    }
+
+    @Override
+    public boolean isHardwareAccelerated() {
+        return false;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ageet.slideactionview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.ColorDrawable;
+
+/**
+ * ColorDrawable that counts setBounds and draw calls.
+ */
+class CountingDrawable extends ColorDrawable {
+    int setBoundsCalls;
+    int drawCalls;
+    private final Paint paint = new Paint();
+
+    CountingDrawable(int color) {
+        super(color);
+    }
+
+    @Override
+    public void setBounds(int left, int top, int right, int bottom) {
+        setBoundsCalls++;
+        super.setBounds(left, top, right, bottom);
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        drawCalls++;
+        canvas.drawRect(getBounds(), paint);
+    }
+}
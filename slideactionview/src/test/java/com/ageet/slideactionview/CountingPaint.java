@@ -0,0 +1,59 @@
+package com.ageet.slideactionview;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * Paint that counts text measurements and text size changes.
+ */
+class CountingPaint extends Paint {
+    int measureCalls;
+    int setTextSizeCalls;
+
+    void reset() {
+        measureCalls = 0;
+        setTextSizeCalls = 0;
+    }
+
+    @Override
+    public void setTextSize(float textSize) {
+        setTextSizeCalls++;
+        super.setTextSize(textSize);
+    }
+
+    @Override
+    public void getTextBounds(String text, int start, int end, Rect bounds) {
+        measureCalls++;
+        super.getTextBounds(text, start, end, bounds);
+    }
+
+    @Override
+    public float measureText(String text) {
+        measureCalls++;
+        return super.measureText(text);
+    }
+
+    @Override
+    public float measureText(String text, int start, int end) {
+        measureCalls++;
+        return super.measureText(text, start, end);
+    }
+
+    @Override
+    public int getFontMetricsInt(FontMetricsInt metrics) {
+        measureCalls++;
+        return super.getFontMetricsInt(metrics);
+    }
+
+    @Override
+    public float ascent() {
+        measureCalls++;
+        return super.ascent();
+    }
+
+    @Override
+    public float descent() {
+        measureCalls++;
+        return super.descent();
+    }
+}
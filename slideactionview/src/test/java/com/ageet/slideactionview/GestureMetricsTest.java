@@ -0,0 +1,104 @@
+package com.ageet.slideactionview;
+
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.time.Duration;
+
+import static com.ageet.slideactionview.SlideActionViewFixture.*;
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class GestureMetricsTest {
+    private SlideActionView view;
+    private VirtualFrameClock clock;
+    private int reports;
+    private long dragDuration;
+    private int touchSamples;
+    private int framesOverBudget;
+    private long dropToCompleteTime;
+    private boolean completed;
+
+    @Before
+    public void setUp() {
+        view = createView();
+        clock = new VirtualFrameClock(60f);
+        view.setFrameClock(clock);
+        view.setMetricsListener(new SlideActionView.MetricsListener() {
+            @Override
+            public void onGestureMetrics(GestureMetrics metrics) {
+                // the instance is reused, so copy what the tests check
+                reports++;
+                dragDuration = metrics.getDragDuration();
+                touchSamples = metrics.getTouchSamples();
+                framesOverBudget = metrics.getFramesOverBudget();
+                dropToCompleteTime = metrics.getDropToCompleteTime();
+                completed = metrics.isCompleted();
+            }
+        });
+    }
+
+    @Test
+    public void releasedGesture_reportsFrameAndDragTimings() {
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        clock.step(3);
+        clock.skip(2);
+        clock.step();
+        MotionEvent batched = MotionEvent.obtain(0, 30, MotionEvent.ACTION_MOVE, 150, HEIGHT / 2f, 0);
+        batched.addBatch(40, 200, HEIGHT / 2f, 1f, 1f, 0);
+        batched.addBatch(50, 250, HEIGHT / 2f, 1f, 1f, 0);
+        view.onTouchEvent(batched);
+        view.onTouchEvent(MotionEvent.obtain(0, 60, MotionEvent.ACTION_MOVE, 300, HEIGHT / 2f, 0));
+        clock.step();
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(100));
+        assertEquals(0, reports);
+        view.onTouchEvent(MotionEvent.obtain(0, 100, MotionEvent.ACTION_UP, 300, HEIGHT / 2f, 0));
+
+        assertEquals(1, reports);
+        assertEquals(Duration.ofMillis(100).toNanos(), dragDuration);
+        // the down, three batched samples and one more move
+        assertEquals(5, touchSamples);
+        // only the frame that came three intervals after the previous one
+        assertEquals(1, framesOverBudget);
+        assertFalse(completed);
+        assertEquals(-1, dropToCompleteTime);
+    }
+
+    @Test
+    public void synchronousCompletion_isTimedAtDispatch() {
+        view.setLeftSliderListener(new SlideActionView.SliderListener() {
+            @Override
+            public void onSlideComplete() {
+                // a slow listener must not count as framework latency
+                SystemClock.sleep(50);
+            }
+        });
+
+        slideLeftToEnd(view);
+
+        assertEquals(1, reports);
+        assertTrue(completed);
+        assertEquals(0, dropToCompleteTime);
+    }
+
+    @Test
+    public void cancelledCompletion_isReportedWithoutDropToCompleteTime() {
+        view.setCompleteDispatch(SlideActionView.CompleteDispatch.AFTER_FRAME);
+
+        slideLeftToEnd(view);
+        view.reset();
+        clock.step();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertEquals(1, reports);
+        assertTrue(completed);
+        assertEquals(-1, dropToCompleteTime);
+    }
+}
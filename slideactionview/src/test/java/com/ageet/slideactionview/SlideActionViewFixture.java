@@ -0,0 +1,86 @@
+package com.ageet.slideactionview;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Sets up the 800x100 view that the tests drive and sends the gestures they share.
+ */
+final class SlideActionViewFixture {
+    static final int WIDTH = 800;
+    static final int HEIGHT = 100;
+
+    private SlideActionViewFixture() {
+    }
+
+    /**
+     * Creates a laid out view with a gray background, the given left and a red right slider in
+     * a parent that is not attached to a window.
+     */
+    static SlideActionView createView(Drawable sliderLeft) {
+        SlideActionView view = new SlideActionView(RuntimeEnvironment.getApplication());
+        setDrawables(view, new ColorDrawable(Color.GRAY), sliderLeft, new ColorDrawable(Color.RED));
+        addToParent(view);
+        layout(view);
+        return view;
+    }
+
+    static SlideActionView createView() {
+        return createView(new ColorDrawable(Color.GREEN));
+    }
+
+    static void setDrawables(SlideActionView view, Drawable background, Drawable sliderLeft, Drawable sliderRight) {
+        view.setSliderBackgroundDrawable(background);
+        view.setSliderLeftDrawable(sliderLeft);
+        view.setSliderRightDrawable(sliderRight);
+    }
+
+    static FrameLayout addToParent(View view) {
+        FrameLayout parent = new FrameLayout(view.getContext());
+        parent.addView(view, new FrameLayout.LayoutParams(WIDTH, HEIGHT));
+        return parent;
+    }
+
+    /**
+     * Makes a parent holding the view the content of the activity, which attaches the view to
+     * its window, and lays the view out.
+     */
+    static FrameLayout attach(Activity activity, View view) {
+        FrameLayout parent = addToParent(view);
+        activity.setContentView(parent);
+        layout(view);
+        return parent;
+    }
+
+    static void layout(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Drags the left slider past the end of the track and releases it there, completing it.
+     */
+    static void slideLeftToEnd(SlideActionView view) {
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, WIDTH, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 20, MotionEvent.ACTION_UP, WIDTH, HEIGHT / 2f, 0));
+    }
+
+    /**
+     * Drags the left slider to the middle of the track and releases it there, so that it returns.
+     * The finger rests long enough before the release that it leaves no velocity.
+     */
+    static void dropLeftAtCenter(SlideActionView view) {
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 100, MotionEvent.ACTION_MOVE, WIDTH / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 1000, MotionEvent.ACTION_UP, WIDTH / 2f, HEIGHT / 2f, 0));
+    }
+}
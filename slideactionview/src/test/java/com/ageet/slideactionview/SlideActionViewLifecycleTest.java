@@ -0,0 +1,286 @@
+package com.ageet.slideactionview;
+
+import android.app.Activity;
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+import android.os.Build;
+import android.os.Looper;
+import android.util.AttributeSet;
+import android.view.Display;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowDisplay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import static com.ageet.slideactionview.SlideActionViewFixture.*;
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class SlideActionViewLifecycleTest {
+    private Activity activity;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+    }
+
+    @Test
+    public void detach_finishesRunningAnimations() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        ColorDrawable slider = new ColorDrawable(Color.GREEN);
+        FrameLayout parent = attachView(clock, slider);
+        SlideActionView view = (SlideActionView) parent.getChildAt(0);
+        Rect start = new Rect(slider.getBounds());
+
+        dropLeftAtCenter(view);
+        clock.step(2);
+        assertTrue(clock.hasPendingFrame());
+        parent.removeView(view);
+
+        assertFalse(clock.hasPendingFrame());
+        assertEquals(start, slider.getBounds());
+    }
+
+    @Test
+    public void detach_duringDragReturnsToNormal() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        ColorDrawable slider = new ColorDrawable(Color.GREEN);
+        FrameLayout parent = attachView(clock, slider);
+        SlideActionView view = (SlideActionView) parent.getChildAt(0);
+        Rect start = new Rect(slider.getBounds());
+
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, WIDTH / 2f, HEIGHT / 2f, 0));
+        parent.removeView(view);
+
+        assertEquals(-1, view.getActiveAction());
+        assertEquals(start, slider.getBounds());
+        assertFalse(clock.hasPendingFrame());
+    }
+
+    @Test
+    public void detach_unregistersAllCallbacks() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        CallbackTrackingContext context = new CallbackTrackingContext(activity);
+        FrameLayout parent = attachView(context, clock, new ColorDrawable(Color.GREEN));
+        SlideActionView view = (SlideActionView) parent.getChildAt(0);
+        assertEquals(1, context.callbacks.size());
+
+        dropLeftAtCenter(view);
+        assertTrue(clock.hasPendingFrame());
+        parent.removeView(view);
+
+        // nothing registered outside the view may keep it alive
+        assertTrue(context.callbacks.isEmpty());
+        assertFalse(clock.hasPendingFrame());
+    }
+
+    @Test
+    public void refreshRate_followsDisplayWithoutQueryingItPerGesture() {
+        DisplayCountingView view = new DisplayCountingView(activity);
+        setDrawables(view, new ColorDrawable(Color.GRAY), new ColorDrawable(Color.GREEN), new ColorDrawable(Color.RED));
+        FrameLayout parent = attach(activity, view);
+        view.displayQueries = 0;
+
+        dropLeftAtCenter(view);
+        dropLeftAtCenter(view);
+        assertEquals(0, view.displayQueries);
+
+        shadowOf(ShadowDisplay.getDefaultDisplay()).setRefreshRate(120f);
+        shadowOf(Looper.getMainLooper()).idle();
+        assertTrue(view.displayQueries > 0);
+
+        parent.removeView(view);
+        view.displayQueries = 0;
+        shadowOf(ShadowDisplay.getDefaultDisplay()).setRefreshRate(90f);
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(0, view.displayQueries);
+    }
+
+    @Test
+    public void hide_finishesRunningAnimations() {
+        assertHideFinishesRunningAnimations();
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.M)
+    public void hide_finishesRunningAnimationsBeforeApi24() {
+        assertHideFinishesRunningAnimations();
+    }
+
+    private void assertHideFinishesRunningAnimations() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        ColorDrawable slider = new ColorDrawable(Color.GREEN);
+        FrameLayout parent = attachView(clock, slider);
+        SlideActionView view = (SlideActionView) parent.getChildAt(0);
+        Rect start = new Rect(slider.getBounds());
+
+        dropLeftAtCenter(view);
+        clock.step(2);
+        assertNotEquals(start, slider.getBounds());
+        parent.setVisibility(View.GONE);
+
+        assertFalse(clock.hasPendingFrame());
+        assertEquals(start, slider.getBounds());
+    }
+
+    @Test
+    public void prewarm_keepsDrawableSetWhileInflating() throws Exception {
+        assertPrewarmKeepsDrawableSetWhileInflating();
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.M)
+    public void prewarm_keepsDrawableSetWhileInflatingBeforeApi24() throws Exception {
+        assertPrewarmKeepsDrawableSetWhileInflating();
+    }
+
+    private void assertPrewarmKeepsDrawableSetWhileInflating() throws Exception {
+        AttributeSet attrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.slideactionview_lazyInflation, "true")
+                .addAttribute(R.attr.slideactionview_sliderBackground, "@android:color/darker_gray")
+                .addAttribute(R.attr.slideactionview_sliderLeft, "@android:color/holo_green_light")
+                .addAttribute(R.attr.slideactionview_sliderRight, "@android:color/holo_red_light")
+                .addAttribute(R.attr.slideactionview_sliderDescription, "slide")
+                .build();
+        SlideActionView view = new SlideActionView(activity, attrs);
+        final CountDownLatch setterCalled = new CountDownLatch(1);
+        final Thread[] worker = new Thread[1];
+        view.prewarm(new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                worker[0] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            setterCalled.await();
+                        } catch (InterruptedException e) {
+                            throw new AssertionError(e);
+                        }
+                        command.run();
+                    }
+                });
+                worker[0].start();
+            }
+        });
+        CountingDrawable sliderLeft = new CountingDrawable(Color.GREEN);
+        view.setSliderLeftDrawable(sliderLeft);
+        // the worker finishes inflating only after the explicit setter, while the view is detached
+        setterCalled.countDown();
+        worker[0].join();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        attach(activity, view);
+        CountingCanvas canvas = new CountingCanvas();
+        view.onDraw(canvas);
+
+        assertFalse(sliderLeft.getBounds().isEmpty());
+        assertEquals(1, sliderLeft.drawCalls);
+        // the attributes the setter did not override are still installed
+        assertEquals(1, canvas.textCalls);
+    }
+
+    @Test
+    public void asyncDescriptions_arriveWhenSetBeforeAttach() throws Exception {
+        assertAsyncDescriptionsArriveWhenSetBeforeAttach();
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.M)
+    public void asyncDescriptions_arriveWhenSetBeforeAttachBeforeApi24() throws Exception {
+        assertAsyncDescriptionsArriveWhenSetBeforeAttach();
+    }
+
+    private void assertAsyncDescriptionsArriveWhenSetBeforeAttach() throws Exception {
+        SlideActionView view = new SlideActionView(activity);
+        setDrawables(view, new ColorDrawable(Color.GRAY), new ColorDrawable(Color.GREEN), new ColorDrawable(Color.RED));
+        final Thread[] worker = new Thread[1];
+        view.setSliderDescriptionsAsync(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                worker[0] = new Thread(command);
+                worker[0].start();
+            }
+        }, "slide", "answer", "decline");
+        worker[0].join();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        attach(activity, view);
+        CountingCanvas canvas = new CountingCanvas();
+        view.onDraw(canvas);
+
+        // only the description of the normal state is drawn
+        assertEquals(1, canvas.textCalls);
+    }
+
+    /**
+     * View that counts how often it looks up its display.
+     */
+    private static class DisplayCountingView extends SlideActionView {
+        int displayQueries;
+
+        DisplayCountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public Display getDisplay() {
+            displayQueries++;
+            return super.getDisplay();
+        }
+    }
+
+    /**
+     * Application context stand-in that records the registered component callbacks.
+     */
+    private static class CallbackTrackingContext extends ContextWrapper {
+        final List<ComponentCallbacks> callbacks = new ArrayList<>();
+
+        CallbackTrackingContext(Context base) {
+            super(base);
+        }
+
+        @Override
+        public Context getApplicationContext() {
+            return this;
+        }
+
+        @Override
+        public void registerComponentCallbacks(ComponentCallbacks callback) {
+            callbacks.add(callback);
+        }
+
+        @Override
+        public void unregisterComponentCallbacks(ComponentCallbacks callback) {
+            callbacks.remove(callback);
+        }
+    }
+
+    private FrameLayout attachView(FrameClock clock, ColorDrawable slider) {
+        return attachView(activity, clock, slider);
+    }
+
+    private FrameLayout attachView(Context context, FrameClock clock, ColorDrawable slider) {
+        SlideActionView view = new SlideActionView(context);
+        view.setFrameClock(clock);
+        setDrawables(view, new ColorDrawable(Color.GRAY), slider, new ColorDrawable(Color.RED));
+        return attach(activity, view);
+    }
+}
@@ -0,0 +1,307 @@
+package com.ageet.slideactionview;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.drawable.GradientDrawable;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static com.ageet.slideactionview.SlideActionViewFixture.*;
+import static org.junit.Assert.*;
+
+/**
+ * Drives scripted drags through onTouchEvent, records every frame and checks the per-frame budgets
+ * of the touch and draw pipeline.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SlideActionViewPerformanceTest {
+    private static final int FRAME_COUNT = 2000;
+
+    private static final int MAX_DRAW_CALLS_PER_FRAME = 6;
+    private static final int MAX_INVALIDATIONS_PER_EVENT = 1;
+    private static final int MAX_SET_BOUNDS_PER_FRAME = 2;
+
+    static class CountingSlideActionView extends SlideActionView {
+        int invalidations;
+
+        CountingSlideActionView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void invalidate() {
+            invalidations++;
+        }
+
+        @Override
+        public void invalidate(int l, int t, int r, int b) {
+            invalidations++;
+        }
+    }
+
+    private CountingSlideActionView view;
+    private CountingDrawable background;
+    private CountingDrawable sliderLeft;
+    private CountingDrawable sliderRight;
+    private final CountingCanvas canvas = new CountingCanvas();
+
+    private int maxDrawCalls;
+    private int maxInvalidations;
+    private int maxSetBounds;
+    private int maxSliderSetBounds;
+
+    @Before
+    public void setUp() {
+        view = new CountingSlideActionView(RuntimeEnvironment.getApplication());
+        background = new CountingDrawable(Color.GRAY);
+        sliderLeft = new CountingDrawable(Color.GREEN);
+        sliderRight = new CountingDrawable(Color.RED);
+        setDrawables(view, background, sliderLeft, sliderRight);
+        view.setSliderDescription("slide");
+        view.setSliderLeftDescription("answer");
+        view.setSliderRightDescription("decline");
+        addToParent(view);
+    }
+
+    private MotionEvent[] scriptDrag(float startX, int direction, int count) {
+        MotionEvent[] events = new MotionEvent[count];
+        for (int i = 0; i < count; i++) {
+            // sweep repeatedly over the whole track
+            float x = startX + direction * ((i * 5) % (WIDTH - HEIGHT));
+            events[i] = MotionEvent.obtain(0, i * 8, MotionEvent.ACTION_MOVE, x, HEIGHT / 2f, 0);
+        }
+        return events;
+    }
+
+    private void frame(MotionEvent event) {
+        view.invalidations = 0;
+        canvas.reset();
+        int sliderSetBounds = sliderLeft.setBoundsCalls + sliderRight.setBoundsCalls;
+        int setBounds = background.setBoundsCalls + sliderSetBounds;
+        view.onTouchEvent(event);
+        view.onDraw(canvas);
+        sliderSetBounds = sliderLeft.setBoundsCalls + sliderRight.setBoundsCalls - sliderSetBounds;
+        setBounds = background.setBoundsCalls + sliderLeft.setBoundsCalls + sliderRight.setBoundsCalls - setBounds;
+        maxDrawCalls = Math.max(maxDrawCalls, canvas.drawCalls);
+        maxInvalidations = Math.max(maxInvalidations, view.invalidations);
+        maxSetBounds = Math.max(maxSetBounds, setBounds);
+        maxSliderSetBounds = Math.max(maxSliderSetBounds, sliderSetBounds);
+    }
+
+    private long runDrag(float startX, int direction) {
+        MotionEvent down = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, startX, HEIGHT / 2f, 0);
+        final MotionEvent[] moves = scriptDrag(startX, direction, FRAME_COUNT);
+        assertTrue(view.onTouchEvent(down));
+        return AllocationCounter.countAfterWarmUp(new Runnable() {
+            @Override
+            public void run() {
+                maxDrawCalls = maxInvalidations = maxSetBounds = maxSliderSetBounds = 0;
+                for (MotionEvent move : moves) frame(move);
+            }
+        });
+    }
+
+    @Test
+    public void drag_staysWithinFrameBudgets() {
+        layout(view);
+        long allocated = runDrag(HEIGHT / 2f, 1);
+
+        assertTrue("allocated " + allocated + " bytes in " + FRAME_COUNT + " frames", allocated < FRAME_COUNT);
+        assertTrue("draw calls per frame: " + maxDrawCalls, maxDrawCalls <= MAX_DRAW_CALLS_PER_FRAME);
+        assertTrue("invalidations per event: " + maxInvalidations, maxInvalidations <= MAX_INVALIDATIONS_PER_EVENT);
+        assertTrue("setBounds per frame: " + maxSetBounds, maxSetBounds <= MAX_SET_BOUNDS_PER_FRAME);
+    }
+
+    @Test
+    public void rightDrag_staysWithinFrameBudgets() {
+        layout(view);
+        long allocated = runDrag(WIDTH - HEIGHT / 2f, -1);
+
+        assertTrue("allocated " + allocated + " bytes in " + FRAME_COUNT + " frames", allocated < FRAME_COUNT);
+        assertTrue("draw calls per frame: " + maxDrawCalls, maxDrawCalls <= MAX_DRAW_CALLS_PER_FRAME);
+        assertTrue("invalidations per event: " + maxInvalidations, maxInvalidations <= MAX_INVALIDATIONS_PER_EVENT);
+        assertTrue("setBounds per frame: " + maxSetBounds, maxSetBounds <= MAX_SET_BOUNDS_PER_FRAME);
+    }
+
+    @Test
+    public void relayoutWithUnchangedInputs_doesNotCallSetBounds() {
+        layout(view);
+        int setBounds = background.setBoundsCalls + sliderLeft.setBoundsCalls + sliderRight.setBoundsCalls;
+        view.requestLayout();
+        layout(view);
+        assertEquals(setBounds, background.setBoundsCalls + sliderLeft.setBoundsCalls + sliderRight.setBoundsCalls);
+    }
+
+    @Test
+    public void animationFrames_invalidateOncePerFrame() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        view.setFrameClock(clock);
+        layout(view);
+        // the release returns the slider and background and fades the right slider back in
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, WIDTH / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 20, MotionEvent.ACTION_UP, WIDTH / 2f, HEIGHT / 2f, 0));
+
+        int frames = 0;
+        while (clock.hasPendingFrame() && frames < 200) {
+            view.invalidations = 0;
+            clock.step();
+            frames++;
+            assertEquals("invalidations in frame " + frames, 1, view.invalidations);
+        }
+
+        assertFalse(clock.hasPendingFrame());
+        assertTrue("frames " + frames, frames > 10);
+    }
+
+    @Test
+    public void edit_appliesAllChangesWithOneInvalidation() {
+        layout(view);
+        final CountingDrawable newSlider = new CountingDrawable(Color.BLUE);
+        view.invalidations = 0;
+        view.edit(new Runnable() {
+            @Override
+            public void run() {
+                view.setSliderLeftDrawable(newSlider);
+                view.setSliderDescription("answer");
+                view.setPaddingLeftFactor(0.1f);
+                view.setPaddingRightFactor(0.9f);
+                view.setMoveSliderDuration(100);
+                view.setSpring(500, 0.75f);
+                view.setFlingVelocity(1000);
+                assertEquals(0, view.invalidations);
+                assertEquals(0, newSlider.setBoundsCalls);
+            }
+        });
+
+        assertEquals(1, view.invalidations);
+        assertTrue(newSlider.getBounds().left >= WIDTH / 10);
+    }
+
+    @Test
+    public void edit_addsActionsWithOneInvalidation() {
+        layout(view);
+        final CountingDrawable action = new CountingDrawable(Color.BLUE);
+        view.invalidations = 0;
+        view.edit(new Runnable() {
+            @Override
+            public void run() {
+                int first = view.addAction(action, 0.5f, 0f, null);
+                int second = view.addAction(new CountingDrawable(Color.YELLOW), 0.5f, 1f, null);
+                view.setActionDescription(first, "hold");
+                view.setActionDescription(second, "forward");
+            }
+        });
+
+        assertEquals(1, view.invalidations);
+        assertEquals(4, view.getActionCount());
+        assertFalse(action.getBounds().isEmpty());
+    }
+
+    @Test
+    public void edit_thatThrowsDoesNotBlockLaterChanges() {
+        layout(view);
+        try {
+            view.edit(new Runnable() {
+                @Override
+                public void run() {
+                    view.setPaddingLeftFactor(0.5f);
+                    throw new IllegalArgumentException();
+                }
+            });
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        int left = sliderLeft.getBounds().left;
+        view.invalidations = 0;
+
+        view.setPaddingLeftFactor(0.1f);
+
+        assertEquals(1, view.invalidations);
+        assertNotEquals(left, sliderLeft.getBounds().left);
+    }
+
+    @Test
+    public void stableBoundsDrag_doesNotCallSetBoundsOnSliders() {
+        view.setStableBounds(true);
+        layout(view);
+        runDrag(HEIGHT / 2f, 1);
+
+        assertEquals(0, maxSliderSetBounds);
+        assertTrue("draw calls per frame: " + maxDrawCalls, maxDrawCalls <= MAX_DRAW_CALLS_PER_FRAME);
+    }
+
+    @Test
+    public void stableBoundsDrag_resizesShapedBackground() {
+        GradientDrawable rounded = new GradientDrawable();
+        rounded.setCornerRadius(HEIGHT / 2f);
+        view.setSliderBackgroundDrawable(rounded);
+        view.setStableBounds(true);
+        layout(view);
+
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, WIDTH / 2f, HEIGHT / 2f, 0));
+
+        // the rounded left end moves with the slider instead of being cropped square
+        assertTrue("background bounds " + rounded.getBounds(), rounded.getBounds().left > HEIGHT);
+        assertEquals(WIDTH, rounded.getBounds().right);
+    }
+
+    @Test
+    public void hiddenSlider_isNotDrawn() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        view.setFrameClock(clock);
+        layout(view);
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        clock.stepUntilIdle(100);
+        int leftDrawCalls = sliderLeft.drawCalls;
+        int rightDrawCalls = sliderRight.drawCalls;
+
+        view.onDraw(canvas);
+
+        assertEquals(leftDrawCalls + 1, sliderLeft.drawCalls);
+        assertEquals(rightDrawCalls, sliderRight.drawCalls);
+    }
+
+    @Test
+    public void restingAction_keepsNormalDescriptionVisible() {
+        layout(view);
+        view.addAction(new CountingDrawable(Color.BLUE), 0.5f, 0f, null);
+        canvas.reset();
+        view.onDraw(canvas);
+
+        assertEquals(1, canvas.textCalls);
+    }
+
+    @Test
+    public void actionDescription_isVisibleUntilItsActionIsDraggedOverIt() {
+        layout(view);
+        int action = view.addAction(new CountingDrawable(Color.BLUE), 0.5f, 0f, null);
+        view.setActionDescription(action, "hold");
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, WIDTH / 2f, HEIGHT / 2f, 0));
+        assertEquals(action, view.getActiveAction());
+        canvas.reset();
+        view.onDraw(canvas);
+        assertEquals(1, canvas.textCalls);
+
+        view.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, WIDTH / 4f, HEIGHT / 2f, 0));
+        canvas.reset();
+        view.onDraw(canvas);
+        assertEquals(0, canvas.textCalls);
+    }
+
+    @Test
+    public void background_isClippedAroundOpaqueSliders() {
+        layout(view);
+        canvas.reset();
+        view.onDraw(canvas);
+
+        assertEquals(2, canvas.clipOutCalls);
+        assertEquals(1, background.drawCalls);
+    }
+}
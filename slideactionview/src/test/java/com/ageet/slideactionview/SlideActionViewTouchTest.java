@@ -0,0 +1,494 @@
+package com.ageet.slideactionview;
+
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+import android.os.Looper;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.ageet.slideactionview.SlideActionViewFixture.*;
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+public class SlideActionViewTouchTest {
+    private static final int MOVE_COUNT = 5000;
+
+    private SlideActionView view;
+
+    @Before
+    public void setUp() {
+        view = createView();
+        view.setSliderDescription("slide");
+    }
+
+    @Test
+    public void onTouchEvent_gesturesDoNotAllocate() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        view.setFrameClock(clock);
+        MotionEvent down = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0);
+        MotionEvent[] moves = new MotionEvent[MOVE_COUNT];
+        for (int i = 0; i < MOVE_COUNT; i++) {
+            float x = HEIGHT / 2f + (i * 7) % (WIDTH - HEIGHT);
+            moves[i] = MotionEvent.obtain(0, i, MotionEvent.ACTION_MOVE, x, HEIGHT / 2f, 0);
+        }
+        MotionEvent release = MotionEvent.obtain(0, MOVE_COUNT, MotionEvent.ACTION_UP, WIDTH / 2f, HEIGHT / 2f, 0);
+        MotionEvent complete = MotionEvent.obtain(0, MOVE_COUNT, MotionEvent.ACTION_UP, WIDTH, HEIGHT / 2f, 0);
+        long allocated = AllocationCounter.countAfterWarmUp(new Runnable() {
+            @Override
+            public void run() {
+                runGesture(clock, down, moves, release);
+                runGesture(clock, down, moves, complete);
+            }
+        });
+
+        assertEquals("bytes allocated by two gestures of " + MOVE_COUNT + " moves", 0, allocated);
+    }
+
+    private void runGesture(VirtualFrameClock clock, MotionEvent down, MotionEvent[] moves, MotionEvent up) {
+        assertTrue(view.onTouchEvent(down));
+        for (MotionEvent move : moves) {
+            view.onTouchEvent(move);
+        }
+        assertTrue(view.onTouchEvent(up));
+        clock.stepUntilIdle(1000);
+        view.reset();
+        clock.stepUntilIdle(1000);
+    }
+
+    @Test
+    public void progressListener_coalescesEventsPerFrame() {
+        final List<SlideActionView.State> states = new ArrayList<>();
+        final List<Integer> actions = new ArrayList<>();
+        final List<Float> progress = new ArrayList<>();
+        view.addSlideProgressListener(new SlideActionView.SlideProgressListener() {
+            @Override
+            public void onSlideStateChanged(SlideActionView.State state) {
+                states.add(state);
+            }
+
+            @Override
+            public void onSlideProgress(int action, float actionProgress) {
+                actions.add(action);
+                progress.add(actionProgress);
+            }
+        });
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        for (int i = 1; i <= 10; i++) {
+            view.onTouchEvent(MotionEvent.obtain(0, i, MotionEvent.ACTION_MOVE, HEIGHT / 2f + i * 20, HEIGHT / 2f, 0));
+        }
+        assertTrue(states.isEmpty());
+        assertTrue(progress.isEmpty());
+
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(17));
+
+        assertEquals(1, states.size());
+        assertEquals(SlideActionView.State.DRAG_SLIDER_LEFT, states.get(0));
+        assertEquals(Collections.singletonList(0), actions);
+        assertTrue(progress.get(0) > 0 && progress.get(0) < 1);
+    }
+
+    @Test
+    public void progressListener_reportsAddedAction() {
+        int action = view.addAction(new ColorDrawable(Color.BLUE), 0.5f, 0f, null);
+        view.layout(0, 0, WIDTH, HEIGHT);
+        final List<Integer> actions = new ArrayList<>();
+        final List<Float> progress = new ArrayList<>();
+        view.addSlideProgressListener(new SlideActionView.SlideProgressListener() {
+            @Override
+            public void onSlideStateChanged(SlideActionView.State state) {
+            }
+
+            @Override
+            public void onSlideProgress(int action, float actionProgress) {
+                actions.add(action);
+                progress.add(actionProgress);
+            }
+        });
+
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, WIDTH / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, WIDTH / 4f, HEIGHT / 2f, 0));
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(17));
+
+        assertEquals(Collections.singletonList(action), actions);
+        assertTrue(progress.get(0) > 0 && progress.get(0) < 1);
+    }
+
+    @Test
+    public void addAction_dragsMiddleSliderToTarget() {
+        final int[] completed = new int[1];
+        int action = view.addAction(new ColorDrawable(Color.BLUE), 0.5f, 0f, new SlideActionView.SliderListener() {
+            @Override
+            public void onSlideComplete() {
+                completed[0]++;
+            }
+        });
+        view.layout(0, 0, WIDTH, HEIGHT);
+        assertEquals(2, action);
+        assertEquals(3, view.getActionCount());
+
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, WIDTH / 2f, HEIGHT / 2f, 0));
+        assertEquals(action, view.getActiveAction());
+        view.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, HEIGHT / 4f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 20, MotionEvent.ACTION_UP, HEIGHT / 4f, HEIGHT / 2f, 0));
+
+        assertEquals(1, completed[0]);
+        assertEquals(action, view.getActiveAction());
+    }
+
+    @Test
+    public void returningSlider_canBeGrabbedMidFlight() {
+        ColorDrawable slider = new ColorDrawable(Color.GREEN);
+        view.setSliderLeftDrawable(slider);
+        view.setSpring(200, 1);
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, WIDTH / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 20, MotionEvent.ACTION_UP, WIDTH / 2f, HEIGHT / 2f, 0));
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(100));
+
+        float center = slider.getBounds().exactCenterX();
+        assertTrue(center > HEIGHT / 2f && center < WIDTH / 2f);
+        assertTrue(view.onTouchEvent(MotionEvent.obtain(0, 200, MotionEvent.ACTION_DOWN, center, HEIGHT / 2f, 0)));
+        assertEquals(0, view.getActiveAction());
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(100));
+        view.onTouchEvent(MotionEvent.obtain(0, 300, MotionEvent.ACTION_MOVE, center, HEIGHT / 2f, 0));
+
+        assertEquals(center, slider.getBounds().exactCenterX(), 1f);
+    }
+
+    @Test
+    public void spring_overshootsStartAndSettlesThere() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        ColorDrawable slider = new ColorDrawable(Color.GREEN);
+        view.setFrameClock(clock);
+        view.setSliderLeftDrawable(slider);
+        view.setSpring(500, 0.5f);
+        Rect start = new Rect(slider.getBounds());
+
+        dropLeftAtCenter(view);
+        int minCenter = Integer.MAX_VALUE;
+        int frames = 0;
+        while (clock.hasPendingFrame() && frames < 120) {
+            clock.step();
+            frames++;
+            minCenter = Math.min(minCenter, slider.getBounds().centerX());
+        }
+
+        assertTrue("lowest center " + minCenter, minCenter < start.centerX());
+        assertFalse("still running after " + frames + " frames", clock.hasPendingFrame());
+        assertEquals(start, slider.getBounds());
+    }
+
+    @Test
+    public void spring_stopsWhileSliderIsHeld() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        ColorDrawable slider = new ColorDrawable(Color.GREEN);
+        view.setFrameClock(clock);
+        view.setSliderLeftDrawable(slider);
+        view.setSpring(500, 0.5f);
+        Rect start = new Rect(slider.getBounds());
+
+        dropLeftAtCenter(view);
+        clock.step(5);
+        Rect grabbed = new Rect(slider.getBounds());
+        assertNotEquals(start, grabbed);
+        float x = grabbed.exactCenterX();
+        assertTrue(view.onTouchEvent(MotionEvent.obtain(0, 2000, MotionEvent.ACTION_DOWN, x, HEIGHT / 2f, 0)));
+        clock.step(10);
+        assertEquals(grabbed, slider.getBounds());
+
+        view.onTouchEvent(MotionEvent.obtain(0, 2100, MotionEvent.ACTION_UP, x, HEIGHT / 2f, 0));
+        clock.stepUntilIdle(120);
+        assertFalse(clock.hasPendingFrame());
+        assertEquals(start, slider.getBounds());
+    }
+
+    @Test
+    public void virtualFrameClock_stepsReturnAnimationToStartPosition() {
+        VirtualFrameClock clock = new VirtualFrameClock(100f);
+        ColorDrawable slider = new ColorDrawable(Color.GREEN);
+        view.setFrameClock(clock);
+        view.setSliderLeftDrawable(slider);
+        view.setMoveSliderDuration(100);
+        view.setShowSliderDuration(100);
+        Rect start = new Rect(slider.getBounds());
+
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, WIDTH / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 20, MotionEvent.ACTION_UP, WIDTH / 2f, HEIGHT / 2f, 0));
+        clock.step(5);
+        assertNotEquals(start, slider.getBounds());
+        int frames = 5 + clock.stepUntilIdle(100);
+
+        assertEquals(start, slider.getBounds());
+        // the first frame only records the start time, 100 ms at 100 Hz take 10 more
+        assertEquals(11, frames);
+    }
+
+    @Test
+    public void afterFrameDispatch_callsListenerAfterFirstFrameUnlessReset() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        final int[] completed = new int[1];
+        view.setFrameClock(clock);
+        view.setCompleteDispatch(SlideActionView.CompleteDispatch.AFTER_FRAME);
+        view.setLeftSliderListener(new SlideActionView.SliderListener() {
+            @Override
+            public void onSlideComplete() {
+                completed[0]++;
+            }
+        });
+
+        slideLeftToEnd(view);
+        assertEquals(0, completed[0]);
+        clock.step();
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(1, completed[0]);
+
+        view.resetImmediately();
+        slideLeftToEnd(view);
+        view.reset();
+        clock.step();
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(1, completed[0]);
+    }
+
+    @Test
+    public void afterFrameDispatch_recordsCompletionWhenListenerRuns() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        final int[] completed = new int[1];
+        final long[] dropToCompleteTime = { Long.MIN_VALUE };
+        view.setFrameClock(clock);
+        view.setCompleteDispatch(SlideActionView.CompleteDispatch.AFTER_FRAME);
+        view.setLeftSliderListener(new SlideActionView.SliderListener() {
+            @Override
+            public void onSlideComplete() {
+                completed[0]++;
+            }
+        });
+        view.setMetricsListener(new SlideActionView.MetricsListener() {
+            @Override
+            public void onGestureMetrics(GestureMetrics metrics) {
+                dropToCompleteTime[0] = metrics.getDropToCompleteTime();
+            }
+        });
+
+        slideLeftToEnd(view);
+        assertEquals(Long.MIN_VALUE, dropToCompleteTime[0]);
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(16));
+        clock.step();
+        assertEquals(Long.MIN_VALUE, dropToCompleteTime[0]);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertEquals(1, completed[0]);
+        assertEquals(Duration.ofMillis(16).toNanos(), dropToCompleteTime[0]);
+    }
+
+    @Test
+    public void synchronousDispatch_callsListenerBeforeCompleteAnimation() {
+        final VirtualFrameClock clock = new VirtualFrameClock(60f);
+        final List<SlideActionView.State> states = new ArrayList<>();
+        view.setFrameClock(clock);
+        view.setLeftSliderListener(new SlideActionView.SliderListener() {
+            @Override
+            public void onSlideComplete() {
+                states.add(view.getState());
+            }
+        });
+
+        slideLeftToEnd(view);
+
+        assertEquals(Collections.singletonList(SlideActionView.State.DRAG_SLIDER_LEFT), states);
+    }
+
+    @Test
+    public void executorDispatch_callsListenerAfterCompleteAnimationStarted() {
+        final VirtualFrameClock clock = new VirtualFrameClock(60f);
+        final List<SlideActionView.State> states = new ArrayList<>();
+        final boolean[] animating = new boolean[1];
+        view.setFrameClock(clock);
+        view.setCompleteDispatch(SlideActionView.CompleteDispatch.EXECUTOR, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        view.setLeftSliderListener(new SlideActionView.SliderListener() {
+            @Override
+            public void onSlideComplete() {
+                states.add(view.getState());
+                animating[0] = clock.hasPendingFrame();
+            }
+        });
+
+        slideLeftToEnd(view);
+
+        assertEquals(Collections.singletonList(SlideActionView.State.COMPLETE_SLIDER_LEFT), states);
+        assertTrue(animating[0]);
+    }
+
+    @Test
+    public void fastFling_completesShortOfTarget() {
+        view.setFlingVelocity(1000);
+
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 20, MotionEvent.ACTION_MOVE, 150, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 40, MotionEvent.ACTION_MOVE, 250, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 50, MotionEvent.ACTION_UP, 250, HEIGHT / 2f, 0));
+
+        assertEquals(SlideActionView.State.COMPLETE_SLIDER_LEFT, view.getState());
+    }
+
+    @Test
+    public void slowDrop_atSameDistanceDoesNotComplete() {
+        view.setFlingVelocity(1000);
+
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 1000, MotionEvent.ACTION_MOVE, 150, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 2000, MotionEvent.ACTION_MOVE, 250, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 2010, MotionEvent.ACTION_UP, 250, HEIGHT / 2f, 0));
+
+        assertEquals(SlideActionView.State.NORMAL, view.getState());
+    }
+
+    @Test
+    public void batchedMove_endsWhereSeparateMovesEnd() {
+        ColorDrawable separateSlider = new ColorDrawable(Color.GREEN);
+        ColorDrawable batchedSlider = new ColorDrawable(Color.GREEN);
+        SlideActionView separate = createView(separateSlider);
+        SlideActionView batched = createView(batchedSlider);
+        // grabbing right of the center and moving left of the start shifts the touch gap,
+        // so the final position depends on the historical samples
+        float downX = HEIGHT / 2f + 20;
+
+        separate.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, downX, HEIGHT / 2f, 0));
+        separate.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, 20, HEIGHT / 2f, 0));
+        separate.onTouchEvent(MotionEvent.obtain(0, 20, MotionEvent.ACTION_MOVE, 200, HEIGHT / 2f, 0));
+        separate.onTouchEvent(MotionEvent.obtain(0, 30, MotionEvent.ACTION_MOVE, 350, HEIGHT / 2f, 0));
+        batched.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, downX, HEIGHT / 2f, 0));
+        MotionEvent move = MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, 20, HEIGHT / 2f, 0);
+        move.addBatch(20, 200, HEIGHT / 2f, 1f, 1f, 0);
+        move.addBatch(30, 350, HEIGHT / 2f, 1f, 1f, 0);
+        batched.onTouchEvent(move);
+
+        assertEquals(separateSlider.getBounds(), batchedSlider.getBounds());
+        assertNotEquals(350 - 20, separateSlider.getBounds().centerX());
+    }
+
+    @Test
+    public void touchPrediction_leadsFingerAndStopsAtTarget() {
+        ColorDrawable slider = new ColorDrawable(Color.GREEN);
+        view.setSliderLeftDrawable(slider);
+        view.setTouchPredictionTime(50);
+
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, 100, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 20, MotionEvent.ACTION_MOVE, 150, HEIGHT / 2f, 0));
+        assertTrue("slider center " + slider.getBounds().centerX(), slider.getBounds().centerX() > 150);
+
+        view.setTouchPredictionTime(10000);
+        view.onTouchEvent(MotionEvent.obtain(0, 30, MotionEvent.ACTION_MOVE, 200, HEIGHT / 2f, 0));
+        Rect rightSlider = new Rect(slider.getBounds());
+        rightSlider.offsetTo(WIDTH - rightSlider.width() - (HEIGHT - rightSlider.height()) / 2, rightSlider.top);
+        assertEquals(rightSlider, slider.getBounds());
+    }
+
+    @Test
+    public void snapToLeftComplete_midFlightJumpsToCompleteFramesAndNotifiesOnce() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        ColorDrawable slider = new ColorDrawable(Color.GREEN);
+        ColorDrawable rightSlider = new ColorDrawable(Color.RED);
+        view.setSliderLeftDrawable(slider);
+        view.setSliderRightDrawable(rightSlider);
+        view.setFrameClock(clock);
+        final List<SlideActionView.State> states = new ArrayList<>();
+        view.addSlideProgressListener(new SlideActionView.SlideProgressListener() {
+            @Override
+            public void onSlideStateChanged(SlideActionView.State state) {
+                states.add(state);
+            }
+
+            @Override
+            public void onSlideProgress(int action, float progress) {
+            }
+        });
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, WIDTH / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 20, MotionEvent.ACTION_UP, WIDTH / 2f, HEIGHT / 2f, 0));
+        clock.step(3);
+        assertEquals(Arrays.asList(SlideActionView.State.DRAG_SLIDER_LEFT, SlideActionView.State.NORMAL), states);
+        states.clear();
+
+        view.snapToLeftComplete();
+
+        assertEquals(SlideActionView.State.COMPLETE_SLIDER_LEFT, view.getState());
+        assertEquals(WIDTH / 2, slider.getBounds().centerX());
+        assertEquals(255, slider.getAlpha());
+        assertEquals(0, rightSlider.getAlpha());
+        clock.stepUntilIdle(100);
+        assertEquals(Collections.singletonList(SlideActionView.State.COMPLETE_SLIDER_LEFT), states);
+        assertEquals(WIDTH / 2, slider.getBounds().centerX());
+
+        view.snapToRightComplete();
+
+        assertEquals(0, slider.getAlpha());
+        assertEquals(255, rightSlider.getAlpha());
+        assertEquals(WIDTH / 2, rightSlider.getBounds().centerX());
+    }
+
+    @Test
+    public void resetImmediately_midFlightRestoresNormalFrames() {
+        VirtualFrameClock clock = new VirtualFrameClock(60f);
+        ColorDrawable slider = new ColorDrawable(Color.GREEN);
+        ColorDrawable rightSlider = new ColorDrawable(Color.RED);
+        view.setSliderLeftDrawable(slider);
+        view.setSliderRightDrawable(rightSlider);
+        view.setFrameClock(clock);
+        Rect start = new Rect(slider.getBounds());
+        slideLeftToEnd(view);
+        clock.step(10);
+        assertNotEquals(start, slider.getBounds());
+
+        view.resetImmediately();
+
+        assertEquals(SlideActionView.State.NORMAL, view.getState());
+        assertEquals(start, slider.getBounds());
+        assertEquals(255, rightSlider.getAlpha());
+        clock.stepUntilIdle(100);
+        assertEquals(start, slider.getBounds());
+    }
+
+    @Test
+    public void recycle_clearsBothListeners() {
+        final int[] completed = new int[1];
+        SlideActionView.SliderListener listener = new SlideActionView.SliderListener() {
+            @Override
+            public void onSlideComplete() {
+                completed[0]++;
+            }
+        };
+        view.setLeftSliderListener(listener);
+        view.setRightSliderListener(listener);
+
+        view.recycle();
+        slideLeftToEnd(view);
+        view.resetImmediately();
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, WIDTH - HEIGHT / 2f, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 10, MotionEvent.ACTION_MOVE, 0, HEIGHT / 2f, 0));
+        view.onTouchEvent(MotionEvent.obtain(0, 20, MotionEvent.ACTION_UP, 0, HEIGHT / 2f, 0));
+
+        assertEquals(SlideActionView.State.COMPLETE_SLIDER_RIGHT, view.getState());
+        assertEquals(0, completed[0]);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ageet.slideactionview;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+public class TextDrawableTest {
+    @Test
+    public void draw_doesNotMeasure() {
+        CountingPaint paint = new CountingPaint();
+        TextDrawable drawable = new TextDrawable("slide to answer", paint);
+        drawable.setBounds(0, 0, 400, 80);
+        paint.reset();
+        CountingCanvas canvas = new CountingCanvas();
+        for (int i = 0; i < 1000; i++) {
+            drawable.draw(canvas);
+        }
+        assertEquals(1000, canvas.textCalls);
+        assertEquals(0, paint.measureCalls);
+        assertEquals(0, paint.setTextSizeCalls);
+    }
+
+    @Test
+    public void setBounds_scalesSharedMetricsWithoutMeasuring() {
+        CountingPaint paint = new CountingPaint();
+        TextDrawable drawable = new TextDrawable("slide to decline", paint);
+        paint.reset();
+        drawable.setBounds(0, 0, 400, 80);
+        drawable.setBounds(0, 0, 400, 80);
+        drawable.setBounds(0, 0, 300, 80);
+        drawable.setBounds(0, 0, 200, 60);
+        assertEquals(0, paint.measureCalls);
+        assertEquals(3, paint.setTextSizeCalls);
+    }
+
+    @Test
+    public void layerCache_rasterizesOnceUntilTextOrBoundsChange() {
+        TextLayerCache cache = new TextLayerCache(TextLayerCache.DEFAULT_MAX_SIZE_KB);
+        TextDrawable drawable = new TextDrawable("slide to answer");
+        drawable.setLayerCache(cache);
+        drawable.setBounds(0, 0, 400, 80);
+        CountingCanvas canvas = new CountingCanvas();
+
+        drawable.draw(canvas);
+        Bitmap layer = cache.get(drawable);
+        assertNotNull(layer);
+        drawable.setAlpha(128);
+        drawable.draw(canvas);
+        assertSame(layer, cache.get(drawable));
+        assertEquals(2, canvas.drawCalls);
+        assertEquals(0, canvas.textCalls);
+
+        drawable.setTextColor(Color.RED);
+        assertNull(cache.get(drawable));
+        drawable.draw(canvas);
+        Bitmap recolored = cache.get(drawable);
+        assertNotNull(recolored);
+        assertNotSame(layer, recolored);
+
+        drawable.setBounds(0, 0, 300, 80);
+        drawable.draw(canvas);
+        assertEquals(recolored.getWidth() - 100, cache.get(drawable).getWidth());
+        assertEquals(0, canvas.textCalls);
+    }
+
+    @Test
+    public void layerCache_trimDropsLayersUntilNextDraw() {
+        TextLayerCache cache = new TextLayerCache(TextLayerCache.DEFAULT_MAX_SIZE_KB);
+        TextDrawable drawable = new TextDrawable("slide to decline");
+        drawable.setLayerCache(cache);
+        drawable.setBounds(0, 0, 400, 80);
+        CountingCanvas canvas = new CountingCanvas();
+        drawable.draw(canvas);
+
+        cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        assertNull(cache.get(drawable));
+        drawable.draw(canvas);
+        assertNotNull(cache.get(drawable));
+        assertEquals(2, canvas.drawCalls);
+    }
+
+    @Test
+    public void measure_sharesMetricsAcrossInstances() {
+        TextDrawable first = new TextDrawable("slide to answer");
+        TextDrawable second = new TextDrawable("slide to answer");
+        assertSame(first.measure(), second.measure());
+    }
+
+    @Test
+    public void premeasured_reusesMetricsMeasuredOnWorkerThread() throws Exception {
+        final TextDrawable[] result = new TextDrawable[1];
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                result[0] = TextDrawable.premeasured("スライドして応答");
+            }
+        });
+        worker.start();
+        worker.join();
+        TextMetrics metrics = result[0].measure();
+
+        assertSame(metrics, new TextDrawable("スライドして応答").measure());
+        result[0].setBounds(0, 0, 400, 80);
+        assertSame(metrics, result[0].measure());
+    }
+}
@@ -0,0 +1,101 @@
+package com.ageet.slideactionview;
+
+import android.os.Looper;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Feeds a recorded {@link TouchTrace} back into a view, either at the recorded speed so that
+ * animations and frame callbacks run between events as they did on the device, or as fast as
+ * possible to measure the event handling alone.
+ */
+class TouchTraceReplayer {
+    static final class Result {
+        /** Time spent in onTouchEvent for every replayed event, in nanoseconds. */
+        final long[] eventNanos;
+        final SlideActionView.State finalState;
+        final int finalAction;
+
+        Result(long[] eventNanos, SlideActionView.State finalState, int finalAction) {
+            this.eventNanos = eventNanos;
+            this.finalState = finalState;
+            this.finalAction = finalAction;
+        }
+
+        long percentileNanos(double percentile) {
+            if (eventNanos.length == 0) return 0;
+            long[] sorted = eventNanos.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)];
+        }
+
+        @Override
+        public String toString() {
+            return eventNanos.length + " events, p50 " + percentileNanos(50) + " ns, p99 " + percentileNanos(99)
+                    + " ns, max " + percentileNanos(100) + " ns, final state " + finalState + " action " + finalAction;
+        }
+    }
+
+    private final boolean realtime;
+
+    /**
+     * @param realtime true to advance the main looper by the recorded time between events
+     */
+    TouchTraceReplayer(boolean realtime) {
+        this.realtime = realtime;
+    }
+
+    Result replay(SlideActionView view, TouchTrace trace) {
+        long[] eventNanos = new long[trace.getSampleCount()];
+        int events = 0;
+        long downTime = 0;
+        long lastTime = 0;
+        int start = 0;
+        while (start < trace.getSampleCount()) {
+            // batched samples and the sample that ends them form one event
+            int end = start;
+            while (trace.isBatched(end) && end + 1 < trace.getSampleCount()) end++;
+            if (realtime && trace.getTime(start) > lastTime) {
+                shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(trace.getTime(start) - lastTime));
+            }
+            layout(view, trace.getWidth(end), trace.getHeight(end));
+            int action = trace.getAction(end);
+            if (action == MotionEvent.ACTION_DOWN) downTime = trace.getTime(end);
+            MotionEvent event = obtain(trace, start, end, downTime);
+            long began = System.nanoTime();
+            view.onTouchEvent(event);
+            eventNanos[events++] = System.nanoTime() - began;
+            event.recycle();
+            if (realtime && trace.getTime(end) > trace.getTime(start)) {
+                shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(trace.getTime(end) - trace.getTime(start)));
+            }
+            lastTime = trace.getTime(end);
+            start = end + 1;
+        }
+        if (realtime) shadowOf(Looper.getMainLooper()).idle();
+        return new Result(Arrays.copyOf(eventNanos, events), view.getState(), view.getActiveAction());
+    }
+
+    private static MotionEvent obtain(TouchTrace trace, int start, int end, long downTime) {
+        MotionEvent event = MotionEvent.obtain(downTime, trace.getTime(start),
+                start == end ? trace.getAction(end) : MotionEvent.ACTION_MOVE, trace.getX(start), trace.getY(start), 0);
+        for (int i = start + 1; i <= end; i++) {
+            event.addBatch(trace.getTime(i), trace.getX(i), trace.getY(i), 1f, 1f, 0);
+        }
+        if (start != end) event.setAction(trace.getAction(end));
+        return event;
+    }
+
+    private static void layout(View view, int width, int height) {
+        if (view.getWidth() == width && view.getHeight() == height) return;
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, width, height);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ageet.slideactionview;
+
+import android.view.MotionEvent;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static com.ageet.slideactionview.SlideActionViewFixture.*;
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+public class TouchTraceTest {
+    @Test
+    public void recorder_roundTripsSamples() {
+        SlideActionView view = createView();
+        TouchTraceRecorder recorder = new TouchTraceRecorder(1024);
+        view.setTouchTraceRecorder(recorder);
+        MotionEvent move = MotionEvent.obtain(0, 16, MotionEvent.ACTION_MOVE, 200.25f, 50f, 0);
+        move.addBatch(24, 300.5f, 50f, 1f, 1f, 0);
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 50f, 50f, 0));
+        view.onTouchEvent(move);
+        view.onTouchEvent(MotionEvent.obtain(0, 40, MotionEvent.ACTION_UP, 300.5f, 50f, 0));
+
+        TouchTrace trace = TouchTrace.read(recorder.toByteArray());
+
+        assertFalse(trace.isTruncated());
+        assertEquals(4, trace.getSampleCount());
+        assertEquals(MotionEvent.ACTION_DOWN, trace.getAction(0));
+        assertTrue(trace.isBatched(1));
+        assertEquals(16, trace.getTime(1));
+        assertEquals(200.25f, trace.getX(1), 0f);
+        assertFalse(trace.isBatched(2));
+        assertEquals(24, trace.getTime(2));
+        assertEquals(MotionEvent.ACTION_UP, trace.getAction(3));
+        assertEquals(WIDTH, trace.getWidth(3));
+        assertEquals(HEIGHT, trace.getHeight(3));
+    }
+
+    @Test
+    public void recorder_truncatesWhenFull() {
+        SlideActionView view = createView();
+        TouchTraceRecorder recorder = new TouchTraceRecorder(32);
+        view.setTouchTraceRecorder(recorder);
+        view.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 50f, 50f, 0));
+        for (int i = 1; i < 10; i++) {
+            view.onTouchEvent(MotionEvent.obtain(0, i, MotionEvent.ACTION_MOVE, 50f + i, 50f, 0));
+        }
+
+        TouchTrace trace = TouchTrace.read(recorder.toByteArray());
+
+        assertTrue(trace.isTruncated());
+        assertTrue(recorder.size() <= 32);
+        assertTrue(trace.getSampleCount() < 10);
+    }
+
+    @Test
+    public void replay_reproducesFinalState() {
+        SlideActionView recorded = createView();
+        TouchTraceRecorder recorder = new TouchTraceRecorder(4096);
+        recorded.setTouchTraceRecorder(recorder);
+        recorded.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, HEIGHT / 2f, HEIGHT / 2f, 0));
+        for (int i = 1; i <= 20; i++) {
+            recorded.onTouchEvent(MotionEvent.obtain(0, i * 16, MotionEvent.ACTION_MOVE,
+                    HEIGHT / 2f + i * (WIDTH - HEIGHT) / 20f, HEIGHT / 2f, 0));
+        }
+        recorded.onTouchEvent(MotionEvent.obtain(0, 340, MotionEvent.ACTION_UP, WIDTH, HEIGHT / 2f, 0));
+        TouchTrace trace = TouchTrace.read(recorder.toByteArray());
+
+        TouchTraceReplayer.Result realtime = new TouchTraceReplayer(true).replay(createView(), trace);
+        TouchTraceReplayer.Result fast = new TouchTraceReplayer(false).replay(createView(), trace);
+
+        assertEquals(recorded.getState(), realtime.finalState);
+        assertEquals(SlideActionView.State.COMPLETE_SLIDER_LEFT, realtime.finalState);
+        assertEquals(realtime.finalState, fast.finalState);
+        assertEquals(recorded.getActiveAction(), fast.finalAction);
+        assertEquals(fast.toString(), 22, fast.eventNanos.length);
+    }
+}
@@ -0,0 +1,54 @@
+package com.ageet.slideengine.benchmark;
+
+import com.ageet.slideengine.SlideEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move events per second while a slider is dragged over the whole track.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DragBenchmark {
+    private final SlideEngine engine = new SlideEngine();
+    private float[] xs;
+
+    @Setup
+    public void setUp() {
+        Tracks.layout(engine, Tracks.WIDTH);
+        xs = Tracks.sweep();
+        int index = engine.hitTest(Tracks.MARGIN + Tracks.SLIDER / 2f, Tracks.HEIGHT / 2f);
+        engine.setState(SlideEngine.PHASE_DRAG, index);
+        engine.startDrag(index, Tracks.MARGIN + Tracks.SLIDER / 2f, engine.getPositionCenterX(index));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Tracks.EVENTS)
+    public float drag() {
+        float sum = 0;
+        for (float x : xs) {
+            sum += engine.getProgress(0, engine.dragCenter(0, x));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Tracks.EVENTS)
+    public float dragWithPrediction() {
+        float sum = 0;
+        for (float x : xs) {
+            sum += engine.clampCenter(0, engine.dragCenter(0, x) + 12f);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ageet.slideengine.benchmark;
+
+import com.ageet.slideengine.SlideEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Down and up events per second: hit testing a touch and deciding whether a release completes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DropBenchmark {
+    private final SlideEngine engine = new SlideEngine();
+    private float[] xs;
+
+    @Setup
+    public void setUp() {
+        Tracks.layout(engine, Tracks.WIDTH);
+        engine.setFlingVelocity(3000);
+        xs = Tracks.sweep();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Tracks.EVENTS)
+    public int hitTest() {
+        int hits = 0;
+        for (float x : xs) {
+            hits += engine.hitTest(x, Tracks.HEIGHT / 2f);
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Tracks.EVENTS)
+    public int drop() {
+        int completed = 0;
+        for (int i = 0; i < xs.length; i++) {
+            if (engine.isComplete(i & 1, xs[i], (i % 7 - 3) * 1000f)) completed++;
+        }
+        return completed;
+    }
+}
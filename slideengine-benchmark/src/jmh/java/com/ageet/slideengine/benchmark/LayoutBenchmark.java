@@ -0,0 +1,43 @@
+package com.ageet.slideengine.benchmark;
+
+import com.ageet.slideengine.SlideEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-layouts per second at a constant width, e.g. on every layout pass of a list item, and
+ * alternating between portrait and landscape widths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LayoutBenchmark {
+    private final SlideEngine engine = new SlideEngine();
+    private boolean landscape = false;
+
+    @Setup
+    public void setUp() {
+        Tracks.layout(engine, Tracks.WIDTH);
+    }
+
+    @Benchmark
+    public SlideEngine relayout() {
+        Tracks.layout(engine, Tracks.WIDTH);
+        return engine;
+    }
+
+    @Benchmark
+    public SlideEngine rotate() {
+        landscape = !landscape;
+        Tracks.layout(engine, landscape ? 2400 : Tracks.WIDTH);
+        return engine;
+    }
+}
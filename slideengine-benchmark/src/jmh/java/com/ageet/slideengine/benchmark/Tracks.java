@@ -0,0 +1,39 @@
+package com.ageet.slideengine.benchmark;
+
+import com.ageet.slideengine.SlideEngine;
+
+/**
+ * Track geometry shared by the benchmarks: a 1080 px wide call screen with answer and decline
+ * sliders at both ends.
+ */
+final class Tracks {
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 200;
+    static final int SLIDER = 176;
+    static final int MARGIN = 12;
+    static final int EVENTS = 1024;
+
+    private Tracks() {
+    }
+
+    static void layout(SlideEngine engine, int width) {
+        int top = (HEIGHT - SLIDER) / 2;
+        int left = MARGIN;
+        int right = width - MARGIN - SLIDER;
+        engine.setSliderCount(2);
+        engine.setSlider(0, left, top, left + SLIDER, top + SLIDER, right, right + SLIDER);
+        engine.setSlider(1, right, top, right + SLIDER, top + SLIDER, left, left + SLIDER);
+        engine.updateHitColumns(width);
+    }
+
+    /**
+     * Touch x coordinates that sweep back and forth over the track, with some overshoot.
+     */
+    static float[] sweep() {
+        float[] xs = new float[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            xs[i] = -40 + (i * 37) % (WIDTH + 80);
+        }
+        return xs;
+    }
+}
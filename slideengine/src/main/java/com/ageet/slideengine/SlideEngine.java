@@ -0,0 +1,202 @@
+package com.ageet.slideengine;
+
+import java.util.Arrays;
+
+/**
+ * Gesture logic of a slide action track without any Android types: slider geometry, hit
+ * testing, drag clamping, completion and the gesture state. All per-event methods work on
+ * primitive fields only and do not allocate.
+ *
+ * <p>Sliders are moved horizontally from a start position to a target position. Coordinates
+ * are pixels of the hosting view.
+ */
+public final class SlideEngine {
+    public static final int PHASE_NORMAL = 0;
+    public static final int PHASE_DRAG = 1;
+    public static final int PHASE_COMPLETE = 2;
+
+    public static final int NONE = -1;
+
+    private static final int MAX_SLIDERS = Byte.MAX_VALUE;
+
+    private int count = 0;
+    private int[] positionLeft = new int[2];
+    private int[] positionTop = new int[2];
+    private int[] positionRight = new int[2];
+    private int[] positionBottom = new int[2];
+    private int[] targetLeft = new int[2];
+    private int[] targetRight = new int[2];
+    private int[] direction = new int[2];
+    // index + 1 of the slider that owns each pixel column, 0 for none
+    private byte[] hitColumns = new byte[0];
+
+    private float flingVelocity = 0;
+    private float touchGap = 0;
+    private int phase = PHASE_NORMAL;
+    private int active = NONE;
+
+    public int getSliderCount() {
+        return count;
+    }
+
+    public void setSliderCount(int count) {
+        if (count > MAX_SLIDERS) throw new IllegalArgumentException("too many sliders: " + count);
+        if (count > positionLeft.length) {
+            positionLeft = Arrays.copyOf(positionLeft, count);
+            positionTop = Arrays.copyOf(positionTop, count);
+            positionRight = Arrays.copyOf(positionRight, count);
+            positionBottom = Arrays.copyOf(positionBottom, count);
+            targetLeft = Arrays.copyOf(targetLeft, count);
+            targetRight = Arrays.copyOf(targetRight, count);
+            direction = Arrays.copyOf(direction, count);
+        }
+        this.count = count;
+    }
+
+    /**
+     * Sets the resting position of a slider and the horizontal extent it has at its target.
+     * The target shares the vertical extent of the position. An empty position disables the slider.
+     */
+    public void setSlider(int index, int left, int top, int right, int bottom, int targetLeft, int targetRight) {
+        positionLeft[index] = left;
+        positionTop[index] = top;
+        positionRight[index] = right;
+        positionBottom[index] = bottom;
+        this.targetLeft[index] = targetLeft;
+        this.targetRight[index] = targetRight;
+        direction[index] = targetLeft + targetRight >= left + right ? 1 : -1;
+    }
+
+    /**
+     * Sets the release velocity in pixels per second that completes a slide regardless of position.
+     * A value of 0 or less disables fling completion.
+     */
+    public void setFlingVelocity(float velocity) {
+        flingVelocity = velocity;
+    }
+
+    public float getFlingVelocity() {
+        return flingVelocity;
+    }
+
+    /**
+     * Rebuilds the hit test lookup for a track of the given width. Call after the sliders changed.
+     * Earlier sliders win where sliders overlap.
+     */
+    public void updateHitColumns(int width) {
+        if (hitColumns.length != width) hitColumns = new byte[width];
+        Arrays.fill(hitColumns, (byte) 0);
+        for (int i = count - 1; i >= 0; i--) {
+            int left = Math.max(positionLeft[i], 0);
+            int right = Math.min(positionRight[i], width);
+            if (left < right && positionTop[i] < positionBottom[i]) {
+                Arrays.fill(hitColumns, left, right, (byte) (i + 1));
+            }
+        }
+    }
+
+    /**
+     * Returns the slider whose resting position covers the given column, or {@link #NONE}.
+     * All sliders share the vertical center of the track, so only x is looked up.
+     */
+    public int getColumnOwner(float x) {
+        if (x < 0 || x >= hitColumns.length) return NONE;
+        return hitColumns[(int) x] - 1;
+    }
+
+    /**
+     * Returns the slider at the given point of the resting layout, or {@link #NONE}.
+     */
+    public int hitTest(float x, float y) {
+        int index = getColumnOwner(x);
+        if (index == NONE) return NONE;
+        return y >= positionTop[index] && y < positionBottom[index] ? index : NONE;
+    }
+
+    public float getPositionCenterX(int index) {
+        return (positionLeft[index] + positionRight[index]) * 0.5f;
+    }
+
+    public float getTargetCenterX(int index) {
+        return (targetLeft[index] + targetRight[index]) * 0.5f;
+    }
+
+    /**
+     * Starts dragging a slider whose center currently is at {@code centerX}. A slider that is not
+     * at its resting position, e.g. while it returns, stays under the finger.
+     */
+    public void startDrag(int index, float x, float centerX) {
+        float gap = x - centerX;
+        if (centerX != getPositionCenterX(index)) {
+            touchGap = gap;
+        } else {
+            touchGap = gap * direction[index] > 0 ? gap : 0;
+        }
+    }
+
+    public float getTouchGap() {
+        return touchGap;
+    }
+
+    /**
+     * Returns the slider center for a touch at {@code x}, clamped between position and target.
+     */
+    public float dragCenter(int index, float x) {
+        int direction = this.direction[index];
+        float position = getPositionCenterX(index);
+        float target = getTargetCenterX(index);
+        float center = x - touchGap;
+        if ((position - center) * direction > 0) {
+            center = position;
+            if (touchGap * direction > 0) {
+                touchGap = (direction > 0 ? Math.max(x, positionLeft[index]) : Math.min(x, positionRight[index])) - center;
+            }
+        } else if ((center - target) * direction > 0) {
+            center = target;
+            touchGap = 0;
+        }
+        return center;
+    }
+
+    public float clampCenter(int index, float centerX) {
+        float position = getPositionCenterX(index);
+        float target = getTargetCenterX(index);
+        return Math.max(Math.min(position, target), Math.min(Math.max(position, target), centerX));
+    }
+
+    /**
+     * Returns true if a slider released at {@code x} with the given velocity completes its slide.
+     */
+    public boolean isComplete(int index, float x, float velocityX) {
+        int direction = this.direction[index];
+        boolean reached = direction > 0 ? targetLeft[index] <= x : targetRight[index] >= x;
+        return reached || flingVelocity > 0 && velocityX * direction >= flingVelocity;
+    }
+
+    /**
+     * Returns how far a slider centered at {@code centerX} is from its position to its target, 0 to 1.
+     */
+    public float getProgress(int index, float centerX) {
+        float from = getPositionCenterX(index);
+        float to = getTargetCenterX(index);
+        if (from == to) return 0;
+        return Math.max(0, Math.min(1, (centerX - from) / (to - from)));
+    }
+
+    public void setState(int phase, int active) {
+        this.phase = phase;
+        this.active = active;
+    }
+
+    public int getPhase() {
+        return phase;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public boolean isDragging() {
+        return phase == PHASE_DRAG && active != NONE;
+    }
+}
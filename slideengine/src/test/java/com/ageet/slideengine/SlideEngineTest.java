@@ -0,0 +1,62 @@
+package com.ageet.slideengine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SlideEngineTest {
+    private static final int WIDTH = 800;
+
+    private final SlideEngine engine = new SlideEngine();
+
+    @Before
+    public void setUp() {
+        engine.setSliderCount(2);
+        engine.setSlider(0, 4, 4, 96, 96, 704, 796);
+        engine.setSlider(1, 704, 4, 796, 96, 4, 96);
+        engine.updateHitColumns(WIDTH);
+    }
+
+    @Test
+    public void hitTest_findsSliderAtRestingPosition() {
+        assertEquals(0, engine.hitTest(50, 50));
+        assertEquals(1, engine.hitTest(750, 50));
+        assertEquals(SlideEngine.NONE, engine.hitTest(400, 50));
+        assertEquals(SlideEngine.NONE, engine.hitTest(50, 99));
+        assertEquals(SlideEngine.NONE, engine.hitTest(-1, 50));
+    }
+
+    @Test
+    public void dragCenter_clampsBetweenPositionAndTarget() {
+        engine.startDrag(0, 60, engine.getPositionCenterX(0));
+        assertEquals(10, engine.getTouchGap(), 0);
+        assertEquals(390, engine.dragCenter(0, 400), 0);
+        assertEquals(750, engine.dragCenter(0, 900), 0);
+        assertEquals(50, engine.dragCenter(0, 0), 0);
+    }
+
+    @Test
+    public void dragCenter_keepsReturningSliderUnderFinger() {
+        engine.startDrag(1, 300, 310);
+        assertEquals(310, engine.dragCenter(1, 300), 0);
+    }
+
+    @Test
+    public void isComplete_atTargetOrOnFling() {
+        assertFalse(engine.isComplete(0, 600, 0));
+        assertTrue(engine.isComplete(0, 704, 0));
+        assertTrue(engine.isComplete(1, 96, 0));
+        engine.setFlingVelocity(1000);
+        assertTrue(engine.isComplete(0, 200, 1500));
+        assertFalse(engine.isComplete(0, 200, -1500));
+        assertTrue(engine.isComplete(1, 600, -1500));
+    }
+
+    @Test
+    public void getProgress_isNormalizedAlongDirection() {
+        assertEquals(0, engine.getProgress(0, 50), 0);
+        assertEquals(0.5f, engine.getProgress(0, 400), 0);
+        assertEquals(1, engine.getProgress(1, 0), 0);
+    }
+}